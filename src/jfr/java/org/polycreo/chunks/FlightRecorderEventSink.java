@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * {@link ChunkEventSink} which records Java Flight Recorder events. It is instantiated reflectively by
+ * {@link ChunkEvents} only if the runtime has {@code jdk.jfr}.
+ */
+final class FlightRecorderEventSink implements ChunkEventSink {
+	
+	private static final String CATEGORY = "Polycreo Chunks";
+	
+	
+	@Override
+	public Object beginFetch() {
+		return FetchEvent.PROBE.isEnabled() ? FetchEvent.start() : null;
+	}
+	
+	@Override
+	public void commitFetch(Object event, Chunkable chunkable, Chunk<?> chunk) {
+		((FetchEvent) event).commit(chunkable, chunk);
+	}
+	
+	@Override
+	public void chunkCreated(Chunk<?> chunk) {
+		if (CreateEvent.PROBE.isEnabled()) {
+			new CreateEvent().commit(chunk.getChunkable(), chunk);
+		}
+	}
+	
+	@Override
+	public Object beginToken() {
+		return TokenEvent.PROBE.isEnabled() ? TokenEvent.start() : null;
+	}
+	
+	@Override
+	public void commitToken(Object event, boolean encode, String token) {
+		((TokenEvent) event).commit(encode, token);
+	}
+	
+	@Override
+	public Object beginSerialize() {
+		return SerializeEvent.PROBE.isEnabled() ? SerializeEvent.start() : null;
+	}
+	
+	@Override
+	public void commitSerialize(Object event, Chunk<?> chunk) {
+		((SerializeEvent) event).commit(chunk);
+	}
+	
+	
+	/**
+	 * Base of events which describe a chunk and the request it was retrieved by.
+	 */
+	private abstract static class ChunkEvent extends Event {
+		
+		// not private, as the Flight Recorder ignores private fields of super classes
+		@Label("Direction")
+		String direction;
+		
+		@Label("Pagination Relation")
+		String relation;
+		
+		@Label("Max Page Size")
+		@Description("Maximum page size of the request, or -1 if unbounded")
+		int maxPageSize;
+		
+		@Label("Element Count")
+		int elementCount;
+		
+		@Label("Estimated Bytes")
+		@Description("Estimated bytes of the content, or 0 if unknown")
+		@DataAmount
+		long estimatedBytes;
+		
+		@Label("Last")
+		boolean last;
+		
+		
+		void commit(Chunkable chunkable, Chunk<?> chunk) {
+			end();
+			if (shouldCommit()) {
+				if (chunkable != null) {
+					direction = String.valueOf(chunkable.getDirection());
+					relation = String.valueOf(chunkable.getPaginationRelation());
+					Integer size = chunkable.getMaxPageSize();
+					maxPageSize = size == null ? -1 : size;
+				}
+				elementCount = chunk.size();
+				estimatedBytes = ChunkEvents.estimateBytes(chunk);
+				last = chunk.isLast();
+				commit();
+			}
+		}
+	}
+	
+	@Name("org.polycreo.chunks.Fetch")
+	@Label("Chunk Fetch")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	private static class FetchEvent extends ChunkEvent {
+		
+		static final FetchEvent PROBE = new FetchEvent();
+		
+		
+		static FetchEvent start() {
+			FetchEvent event = new FetchEvent();
+			event.begin();
+			return event;
+		}
+	}
+	
+	@Name("org.polycreo.chunks.Create")
+	@Label("Chunk Create")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	private static class CreateEvent extends ChunkEvent {
+		
+		static final CreateEvent PROBE = new CreateEvent();
+	}
+	
+	@Name("org.polycreo.chunks.Token")
+	@Label("Pagination Token")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	private static class TokenEvent extends Event {
+		
+		static final TokenEvent PROBE = new TokenEvent();
+		
+		@Label("Operation")
+		private String operation;
+		
+		@Label("Token Length")
+		private int tokenLength;
+		
+		
+		static TokenEvent start() {
+			TokenEvent event = new TokenEvent();
+			event.begin();
+			return event;
+		}
+		
+		void commit(boolean encode, String token) {
+			end();
+			if (shouldCommit()) {
+				operation = encode ? "encode" : "decode";
+				tokenLength = token == null ? 0 : token.length();
+				commit();
+			}
+		}
+	}
+	
+	@Name("org.polycreo.chunks.Serialize")
+	@Label("Chunk Serialize")
+	@Category(CATEGORY)
+	@Enabled(false)
+	@StackTrace(false)
+	private static class SerializeEvent extends Event {
+		
+		static final SerializeEvent PROBE = new SerializeEvent();
+		
+		@Label("Element Count")
+		private int elementCount;
+		
+		@Label("Estimated Bytes")
+		@Description("Estimated bytes of the content, or 0 if unknown")
+		@DataAmount
+		private long estimatedBytes;
+		
+		
+		static SerializeEvent start() {
+			SerializeEvent event = new SerializeEvent();
+			event.begin();
+			return event;
+		}
+		
+		void commit(Chunk<?> chunk) {
+			end();
+			if (shouldCommit()) {
+				elementCount = chunk.size();
+				estimatedBytes = ChunkEvents.estimateBytes(chunk);
+				commit();
+			}
+		}
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+import org.polycreo.chunks.jackson.ChunkModule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test for {@link FlightRecorderEventSink} through {@link ChunkEvents}.
+ */
+public class FlightRecorderEventSinkTest {
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	private ChunkSource<String> source = new MeteredChunkSource<>(new ExampleRepository(), ChunkMetrics.NOOP);
+	
+	
+	@Before
+	public void setUp() {
+		assumeTrue(FlightRecorder.isAvailable());
+		assertThat(ChunkEvents.isAvailable()).isTrue();
+	}
+	
+	@After
+	public void tearDown() {
+		ChunkEvents.setSizeEstimator(null);
+	}
+	
+	@Test
+	public void testEventsDisabledByDefault() {
+		assertThat(ChunkEvents.beginFetch()).isNull();
+		assertThat(ChunkEvents.beginToken()).isNull();
+		assertThat(ChunkEvents.beginSerialize()).isNull();
+		
+		try (Recording recording = new Recording()) {
+			recording.start();
+			assertThat(ChunkEvents.beginFetch()).isNull();
+		}
+	}
+	
+	@Test
+	public void testRecordsEvents() throws Exception {
+		Path file = temporaryFolder.newFile("chunks.jfr").toPath();
+		ChunkFactory factory = new ChunkFactory(e -> (Serializable) e, new SimplePaginationTokenEncoder());
+		ObjectMapper mapper = new ObjectMapper().registerModule(new ChunkModule());
+		ChunkEvents.setSizeEstimator(e -> ((String) e).length());
+		try (Recording recording = new Recording()) {
+			recording.enable("org.polycreo.chunks.Fetch");
+			recording.enable("org.polycreo.chunks.Create");
+			recording.enable("org.polycreo.chunks.Token");
+			recording.enable("org.polycreo.chunks.Serialize");
+			recording.start();
+			
+			Chunk<String> chunk = source.findAll(new ChunkRequest(10, Direction.DESC));
+			factory.createChunk(new long[] {
+				1L,
+				2L
+			}, new ChunkRequest(2, Direction.ASC)).getPaginationToken();
+			mapper.writeValueAsString(chunk);
+			
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		
+		List<RecordedEvent> fetches = eventsOf(events, "org.polycreo.chunks.Fetch");
+		assertThat(fetches).hasSize(1);
+		assertThat(fetches.get(0).getString("direction")).isEqualTo("DESC");
+		assertThat(fetches.get(0).getInt("maxPageSize")).isEqualTo(10);
+		assertThat(fetches.get(0).getInt("elementCount")).isEqualTo(10);
+		assertThat(fetches.get(0).getLong("estimatedBytes")).isEqualTo(20);
+		
+		List<RecordedEvent> creates = eventsOf(events, "org.polycreo.chunks.Create");
+		assertThat(creates).extracting(e -> e.getLong("estimatedBytes")).contains(16L);
+		
+		assertThat(eventsOf(events, "org.polycreo.chunks.Token"))
+			.extracting(e -> e.getString("operation")).contains("encode");
+		assertThat(eventsOf(events, "org.polycreo.chunks.Serialize"))
+			.extracting(e -> e.getInt("elementCount"), e -> e.getLong("estimatedBytes"))
+			.containsExactly(tuple(10, 20L));
+	}
+	
+	private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+		return events.stream()
+			.filter(e -> e.getEventType().getName().equals(name))
+			.collect(Collectors.toList());
+	}
+}
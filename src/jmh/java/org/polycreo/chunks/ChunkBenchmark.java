@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+import org.polycreo.chunks.jackson.ChunkModule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Benchmark of the operations called on every chunk: construction, mapping, navigation and serialization.
+ *
+ * <p>Run with the GC profiler (enabled in the build) to compare the allocation rate as well.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ChunkBenchmark {
+	
+	@Param({
+		"1",
+		"20",
+		"100",
+		"1000"
+	})
+	private int pageSize;
+	
+	private List<Long> content;
+	
+	private Chunkable chunkable;
+	
+	private ChunkFactory factory;
+	
+	private ChunkImpl<Long> chunk;
+	
+	private ObjectMapper mapper;
+	
+	
+	@Setup
+	public void setUp() {
+		content = LongStream.range(0, pageSize).boxed().collect(Collectors.toList());
+		chunkable = new ChunkRequest("token", PaginationRelation.NEXT, pageSize, Direction.ASC);
+		factory = new ChunkFactory(e -> (Serializable) e, new SimplePaginationTokenEncoder());
+		chunk = ChunkImpl.wrap(content, "token", chunkable);
+		mapper = new ObjectMapper().registerModule(new ChunkModule(true));
+	}
+	
+	@Benchmark
+	public Chunk<Long> wrap() {
+		return ChunkImpl.wrap(content, "token", chunkable);
+	}
+	
+	@Benchmark
+	public String createChunk() {
+		// includes the id extraction and encoding of the token
+		return factory.createChunk(content, chunkable).getPaginationToken();
+	}
+	
+	@Benchmark
+	public String createChunkWithLookahead() {
+		return factory.createChunkWithLookahead(content, chunkable).getPaginationToken();
+	}
+	
+	@Benchmark
+	public void map(Blackhole blackhole) {
+		// map is a lazy view, so consume the content to apply the mapper to every element
+		for (String element : chunk.map(String::valueOf)) {
+			blackhole.consume(element);
+		}
+	}
+	
+	@Benchmark
+	public void navigate(Blackhole blackhole) {
+		blackhole.consume(chunk.hasNext());
+		blackhole.consume(chunk.hasPrevious());
+		blackhole.consume(chunk.nextChunkable());
+		blackhole.consume(chunk.previousChunkable());
+	}
+	
+	@Benchmark
+	public byte[] serialize() throws JsonProcessingException {
+		return mapper.writeValueAsBytes(chunk);
+	}
+}
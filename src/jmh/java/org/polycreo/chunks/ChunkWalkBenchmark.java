@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Benchmark of walking through all chunks of a source, following {@link Chunk#nextChunkable()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ChunkWalkBenchmark {
+	
+	@Param({
+		"ASC",
+		"DESC"
+	})
+	private Direction direction;
+	
+	@Param({
+		"20",
+		"100"
+	})
+	private int pageSize;
+	
+	private ExampleRepository repository;
+	
+	private NavigableChunkSource<Long, Long> navigable;
+	
+	
+	@Setup
+	public void setUp() {
+		repository = new ExampleRepository();
+		navigable = new NavigableChunkSource<>(Function.identity(), Long::valueOf);
+		LongStream.range(0, 10_000).forEach(navigable::put);
+	}
+	
+	@Benchmark
+	public void walkExampleRepository(Blackhole blackhole) {
+		walk(repository, blackhole);
+	}
+	
+	@Benchmark
+	public void walkNavigableChunkSource(Blackhole blackhole) {
+		walk(navigable, blackhole);
+	}
+	
+	private void walk(ChunkSource<?> source, Blackhole blackhole) {
+		for (Chunkable c = new ChunkRequest(pageSize, direction); c != null;) {
+			Chunk<?> chunk = source.findAll(c);
+			for (Object element : chunk) {
+				blackhole.consume(element);
+			}
+			c = chunk.nextChunkable();
+		}
+	}
+}
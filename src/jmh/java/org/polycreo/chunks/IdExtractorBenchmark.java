@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+import org.polycreo.id.DefaultIdExtractor;
+
+/**
+ * Benchmark of {@link IdExtractorRegistry} compared with {@link DefaultIdExtractor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdExtractorBenchmark {
+	
+	@Param({
+		"10",
+		"1000"
+	})
+	private int pageSize;
+	
+	private List<Entity> content;
+	
+	private Chunkable chunkable;
+	
+	private Function<Object, Serializable> defaultIdExtractor;
+	
+	private Function<Object, Serializable> compiledIdExtractor;
+	
+	private ChunkFactory defaultFactory;
+	
+	private ChunkFactory compiledFactory;
+	
+	
+	@Setup
+	public void setUp() {
+		content = LongStream.range(0, pageSize).mapToObj(Entity::new).collect(Collectors.toList());
+		chunkable = new ChunkRequest("token", PaginationRelation.NEXT, pageSize, Direction.ASC);
+		defaultIdExtractor = new DefaultIdExtractor();
+		compiledIdExtractor = new IdExtractorRegistry();
+		defaultFactory = new ChunkFactory(defaultIdExtractor, new SimplePaginationTokenEncoder());
+		compiledFactory = new ChunkFactory(compiledIdExtractor, new SimplePaginationTokenEncoder());
+	}
+	
+	@Benchmark
+	public String createChunkWithDefaultIdExtractor() {
+		return defaultFactory.createChunk(content, chunkable).getPaginationToken();
+	}
+	
+	@Benchmark
+	public String createChunkWithIdExtractorRegistry() {
+		return compiledFactory.createChunk(content, chunkable).getPaginationToken();
+	}
+	
+	@Benchmark
+	public void extractAllWithDefaultIdExtractor(Blackhole blackhole) {
+		for (Entity entity : content) {
+			blackhole.consume(defaultIdExtractor.apply(entity));
+		}
+	}
+	
+	@Benchmark
+	public void extractAllWithIdExtractorRegistry(Blackhole blackhole) {
+		for (Entity entity : content) {
+			blackhole.consume(compiledIdExtractor.apply(entity));
+		}
+	}
+	
+	
+	/**
+	 * Entity with {@code long} ID.
+	 */
+	public static class Entity {
+		
+		private final long id;
+		
+		
+		public Entity(long id) {
+			this.id = id;
+		}
+		
+		public long getId() {
+			return id;
+		}
+	}
+}
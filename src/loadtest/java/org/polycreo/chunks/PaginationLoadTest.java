@@ -0,0 +1,290 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Load generator which drives many concurrent paginators through full walks of an in-process {@link ChunkSource},
+ * and reports the throughput and latency percentiles per page depth.
+ *
+ * <p>Each paginator repeats the scenario of {@code ChunkingAscTest} and {@code ChunkingDescTest}, alternating
+ * the direction: it follows {@link Chunk#nextChunkable()} from the first chunk to the last one, then follows
+ * {@link Chunk#previousChunkable()} back until an empty chunk. Latencies are recorded separately for each
+ * relation and page depth, where deep pages are grouped into power-of-two ranges.</p>
+ *
+ * <p>Options are given as {@code key=value} arguments:</p>
+ * <ul>
+ *   <li>{@code source} - {@code example}, {@code lookahead}, {@code navigable} or {@code caching}
+ *     (default {@code navigable})</li>
+ *   <li>{@code elements} - number of elements of the navigable sources (default 10000)</li>
+ *   <li>{@code pageSize} - page size of the requests (default 20)</li>
+ *   <li>{@code threads} - number of concurrent paginators (default twice the number of processors)</li>
+ *   <li>{@code warmup} - warm-up seconds which are not recorded (default 5)</li>
+ *   <li>{@code duration} - measured seconds (default 20)</li>
+ * </ul>
+ *
+ * <pre>./gradlew loadTest -PloadTestArgs="source=caching threads=32 duration=60"</pre>
+ */
+public final class PaginationLoadTest {
+	
+	private static final int SIGNIFICANT_DIGITS = 3;
+	
+	private static final double NANOS_PER_MICRO = 1000.0;
+	
+	
+	private PaginationLoadTest() {
+	}
+	
+	/**
+	 * Runs the load test.
+	 *
+	 * @param args options in {@code key=value} form
+	 * @throws Exception if a paginator failed
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parse(args);
+		String sourceName = options.getOrDefault("source", "navigable");
+		int elements = Integer.parseInt(options.getOrDefault("elements", "10000"));
+		int pageSize = Integer.parseInt(options.getOrDefault("pageSize", "20"));
+		int threads = Integer.parseInt(options.getOrDefault("threads",
+				String.valueOf(Runtime.getRuntime().availableProcessors() * 2)));
+		Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+		Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "20")));
+		
+		ChunkSource<String> source = createSource(sourceName, elements);
+		int expectedElements = sourceName.equals("example") || sourceName.equals("lookahead")
+				? ExampleRepository.DATA.size() : elements;
+		
+		PrintStream out = System.out;
+		out.printf(Locale.ENGLISH, "source=%s elements=%d pageSize=%d threads=%d warmup=%s duration=%s%n",
+				sourceName, expectedElements, pageSize, threads, warmup, duration);
+		
+		long start = System.nanoTime();
+		long recordFrom = start + warmup.toNanos();
+		long deadline = recordFrom + duration.toNanos();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Statistics>> futures = new ArrayList<>(threads);
+		try {
+			for (int i = 0; i < threads; i++) {
+				Paginator paginator = new Paginator(source, pageSize, expectedElements, i % 2 == 0
+						? Direction.ASC : Direction.DESC, recordFrom, deadline);
+				futures.add(executor.submit(paginator::call));
+			}
+			Statistics total = new Statistics();
+			for (Future<Statistics> future : futures) {
+				total.merge(future.get());
+			}
+			total.report(out, duration);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (separator < 0) {
+				throw new IllegalArgumentException("option must be key=value: " + arg);
+			}
+			options.put(arg.substring(0, separator), arg.substring(separator + 1));
+		}
+		return options;
+	}
+	
+	private static ChunkSource<String> createSource(String name, int elements) {
+		IntFunction<String> key = i -> String.format(Locale.ENGLISH, "%010d", i);
+		switch (name) {
+			case "example":
+				return new ExampleRepository();
+			case "lookahead":
+				return new ExampleRepository(true);
+			case "navigable":
+			case "caching":
+				NavigableChunkSource<String, String> navigable =
+						new NavigableChunkSource<>(Function.identity(), Function.identity());
+				IntStream.range(0, elements).mapToObj(key).forEach(navigable::put);
+				return name.equals("navigable") ? navigable
+						: new CachingChunkSource<>(navigable, 10_000, Duration.ofMinutes(1));
+			default:
+				throw new IllegalArgumentException("unknown source: " + name);
+		}
+	}
+	
+	
+	/**
+	 * Paginator which repeats walks until the deadline, recording the latency of each page.
+	 */
+	private static class Paginator {
+		
+		private final ChunkSource<String> source;
+		
+		private final int pageSize;
+		
+		private final int expectedElements;
+		
+		private final long recordFrom;
+		
+		private final long deadline;
+		
+		private final Statistics statistics = new Statistics();
+		
+		private Direction direction;
+		
+		
+		Paginator(ChunkSource<String> source, int pageSize, int expectedElements, Direction direction,
+				long recordFrom, long deadline) {
+			this.source = source;
+			this.pageSize = pageSize;
+			this.expectedElements = expectedElements;
+			this.direction = direction;
+			this.recordFrom = recordFrom;
+			this.deadline = deadline;
+		}
+		
+		Statistics call() {
+			long now = System.nanoTime();
+			while (now < deadline) {
+				boolean recording = now >= recordFrom;
+				walk(recording);
+				direction = direction == Direction.ASC ? Direction.DESC : Direction.ASC;
+				now = System.nanoTime();
+			}
+			return statistics;
+		}
+		
+		private void walk(boolean recording) {
+			int elements = 0;
+			int depth = 0;
+			Chunk<String> chunk = null;
+			for (Chunkable request = new ChunkRequest(pageSize, direction); request != null; depth++) {
+				chunk = fetch(request, recording ? statistics.forward : null, depth);
+				elements += chunk.size();
+				request = chunk.nextChunkable();
+			}
+			depth = 0;
+			for (Chunkable request = chunk.previousChunkable(); request != null; depth++) {
+				Chunk<String> previous = fetch(request, recording ? statistics.backward : null, depth);
+				request = previous.hasContent() ? previous.previousChunkable() : null;
+			}
+			if (recording) {
+				statistics.walks++;
+				if (elements != expectedElements) {
+					statistics.incompleteWalks++;
+				}
+			}
+		}
+		
+		private Chunk<String> fetch(Chunkable request, List<Histogram> histograms, int depth) {
+			long start = System.nanoTime();
+			Chunk<String> chunk = source.findAll(request);
+			long elapsed = System.nanoTime() - start;
+			if (histograms != null) {
+				Statistics.histogramOf(histograms, Statistics.bucketOf(depth)).recordValue(elapsed);
+			}
+			return chunk;
+		}
+	}
+	
+	
+	/**
+	 * Latency histograms per relation and depth bucket, with counts of walks.
+	 */
+	private static class Statistics {
+		
+		private final List<Histogram> forward = new ArrayList<>();
+		
+		private final List<Histogram> backward = new ArrayList<>();
+		
+		private long walks;
+		
+		private long incompleteWalks;
+		
+		
+		static int bucketOf(int depth) {
+			// 0, 1, 2-3, 4-7, 8-15, ...
+			return depth == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(depth);
+		}
+		
+		static Histogram histogramOf(List<Histogram> histograms, int bucket) {
+			while (histograms.size() <= bucket) {
+				histograms.add(new Histogram(SIGNIFICANT_DIGITS));
+			}
+			return histograms.get(bucket);
+		}
+		
+		void merge(Statistics other) {
+			for (int i = 0; i < other.forward.size(); i++) {
+				histogramOf(forward, i).add(other.forward.get(i));
+			}
+			for (int i = 0; i < other.backward.size(); i++) {
+				histogramOf(backward, i).add(other.backward.get(i));
+			}
+			walks += other.walks;
+			incompleteWalks += other.incompleteWalks;
+		}
+		
+		void report(PrintStream out, Duration duration) {
+			long pages = forward.stream().mapToLong(Histogram::getTotalCount).sum()
+					+ backward.stream().mapToLong(Histogram::getTotalCount).sum();
+			double seconds = duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+			out.printf(Locale.ENGLISH, "walks=%d (%.1f/s) pages=%d (%.1f/s) incompleteWalks=%d%n",
+					walks, walks / seconds, pages, pages / seconds, incompleteWalks);
+			out.printf(Locale.ENGLISH, "%-8s %-10s %12s %10s %10s %10s %10s%n",
+					"relation", "depth", "count", "p50(us)", "p99(us)", "p999(us)", "max(us)");
+			report(out, PaginationRelation.NEXT.name(), forward);
+			report(out, PaginationRelation.PREV.name(), backward);
+		}
+		
+		private static void report(PrintStream out, String relation, List<Histogram> histograms) {
+			for (int bucket = 0; bucket < histograms.size(); bucket++) {
+				Histogram histogram = histograms.get(bucket);
+				if (histogram.getTotalCount() == 0) {
+					continue;
+				}
+				String depth = bucket <= 1 ? String.valueOf(bucket)
+						: String.format(Locale.ENGLISH, "%d-%d", 1 << (bucket - 1), (1 << bucket) - 1);
+				out.printf(Locale.ENGLISH, "%-8s %-10s %12d %10.1f %10.1f %10.1f %10.1f%n",
+						relation, depth, histogram.getTotalCount(),
+						histogram.getValueAtPercentile(50) / NANOS_PER_MICRO,
+						histogram.getValueAtPercentile(99) / NANOS_PER_MICRO,
+						histogram.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+						histogram.getMaxValue() / NANOS_PER_MICRO);
+			}
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.concurrent.CompletionStage;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * Source which serves {@link Chunk}s asynchronously.
+ *
+ * @param <T> type of element
+ * @see ChunkSource
+ */
+@FunctionalInterface
+public interface AsyncChunkSource<T> {
+	
+	/**
+	 * Fetches a {@link Chunk} of elements meeting the paging restriction provided in the {@link Chunkable} object.
+	 *
+	 * @param chunkable pagination information
+	 * @return a stage which completes with a chunk of elements
+	 */
+	CompletionStage<Chunk<T>> findAllAsync(Chunkable chunkable);
+	
+	/**
+	 * Returns a {@link ChunkSource} which blocks the calling thread until the fetch completes.
+	 * A failure of the fetch is rethrown as is when it is unchecked.
+	 *
+	 * @return synchronous view of this source
+	 */
+	default ChunkSource<T> blocking() {
+		return chunkable -> AsyncExecutors.join(findAllAsync(chunkable).toCompletableFuture());
+	}
+}
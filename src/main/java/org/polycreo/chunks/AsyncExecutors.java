@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Default executor of asynchronous chunk sources.
+ */
+@UtilityClass
+class AsyncExecutors {
+	
+	/**
+	 * Returns the shared default executor, which runs each task on a new virtual thread if the runtime supports
+	 * them, or on a cached pool of daemon threads otherwise.
+	 *
+	 * @return default executor
+	 */
+	static Executor getDefault() {
+		return Holder.EXECUTOR;
+	}
+	
+	/**
+	 * Waits for the given future to complete and returns its result. A failure is rethrown as is when it is
+	 * unchecked, and wrapped in {@link CompletionException} otherwise.
+	 *
+	 * @param <V> type of result
+	 * @param future future to wait for
+	 * @return result of the future
+	 */
+	static <V> V join(CompletableFuture<V> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+	
+	private static ExecutorService create() {
+		try {
+			// Executors.newVirtualThreadPerTaskExecutor() is available since Java 21
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			ThreadFactory threadFactory = Executors.defaultThreadFactory();
+			return Executors.newCachedThreadPool(r -> {
+				Thread thread = threadFactory.newThread(r);
+				thread.setName("chunk-source-" + thread.getName());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	
+	private static class Holder {
+		
+		static final ExecutorService EXECUTOR = create();
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * {@link Chunk} whose content is a sequence of fixed-width records in a {@link ByteBuffer}.
+ *
+ * <p>The buffer is typically a direct one, so that a large page does not put a heap object per element.
+ * Elements are decoded by a {@link FixedWidthCodec} on each access and are not retained. Callers which
+ * only read a few fields of each record may avoid decoding altogether by reading them from
+ * {@link #getBuffer()} at {@link #getRecordOffset(int)}, or through {@link #forEachRecord(ObjIntConsumer)},
+ * and serializers may write the records as is by {@link #writeTo(WritableByteChannel)}.</p>
+ *
+ * @param <T> entity type
+ */
+public class BufferChunk<T> extends ChunkImpl<T> {
+	
+	private final BufferRecordList<T> records;
+	
+	
+	BufferChunk(BufferRecordList<T> records, Supplier<String> paginationToken, Chunkable chunkable) {
+		super(records, paginationToken, chunkable, null);
+		this.records = records;
+	}
+	
+	/**
+	 * Creates a new {@link BufferChunk} of the records between the position and the limit of the given buffer.
+	 * The buffer is adopted without copying, and the caller must not modify its content afterwards.
+	 *
+	 * @param <T> entity type
+	 * @param buffer buffer of records, must not be {@literal null}.
+	 * @param codec codec of records, must not be {@literal null}.
+	 * @param paginationToken token, can be {@literal null}.
+	 * @param chunkable can be {@literal null}.
+	 * @return chunk backed by the given buffer
+	 * @throws IllegalArgumentException if the remaining bytes are not a multiple of the record size
+	 */
+	public static <T> BufferChunk<T> wrap(ByteBuffer buffer, FixedWidthCodec<? extends T> codec,
+			String paginationToken, Chunkable chunkable) {
+		return new BufferChunk<>(new BufferRecordList<>(buffer, codec), () -> paginationToken, chunkable);
+	}
+	
+	/**
+	 * Returns a read-only view of the records. Record {@code i} starts at {@link #getRecordOffset(int)
+	 * getRecordOffset(i)}. The buffer has the byte order of the one which this chunk wraps.
+	 *
+	 * @return read-only buffer of the records
+	 */
+	public ByteBuffer getBuffer() {
+		return records.getBuffer();
+	}
+	
+	/**
+	 * Returns the number of bytes of a record.
+	 *
+	 * @return the number of bytes of a record
+	 */
+	public int getRecordSize() {
+		return records.getRecordSize();
+	}
+	
+	/**
+	 * Returns the offset of the record at the given index in {@link #getBuffer()}.
+	 *
+	 * @param index index of the record
+	 * @return offset of the record
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public int getRecordOffset(int index) {
+		return records.offsetOf(index);
+	}
+	
+	/**
+	 * Performs the given action for each record with the buffer and the offset of the record,
+	 * without decoding it. The buffer is shared by all records and must be read by absolute get methods.
+	 *
+	 * @param action action to be performed for each record
+	 */
+	public void forEachRecord(ObjIntConsumer<? super ByteBuffer> action) {
+		ByteBuffer buffer = records.getBuffer();
+		int recordSize = records.getRecordSize();
+		for (int i = 0, offset = 0; i < records.size(); i++, offset += recordSize) {
+			action.accept(buffer, offset);
+		}
+	}
+	
+	/**
+	 * Writes the records as is to the given channel.
+	 *
+	 * @param channel channel to write to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = records.getBuffer();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable list view which decodes each element from fixed-width records in a buffer on access.
+ *
+ * @param <T> element type
+ */
+final class BufferRecordList<T> extends AbstractList<T> implements RandomAccess {
+	
+	private final ByteBuffer buffer;
+	
+	private final FixedWidthCodec<? extends T> codec;
+	
+	private final int recordSize;
+	
+	private final int size;
+	
+	
+	/**
+	 * Creates a view of the records between the position and the limit of the given buffer, in its byte order.
+	 *
+	 * @param buffer buffer of records, the position and limit of which are not modified
+	 * @param codec codec of records
+	 * @throws IllegalArgumentException if the remaining bytes are not a multiple of the record size
+	 */
+	BufferRecordList(ByteBuffer buffer, FixedWidthCodec<? extends T> codec) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("buffer must not be null!");
+		}
+		if (codec == null) {
+			throw new IllegalArgumentException("codec must not be null!");
+		}
+		recordSize = codec.getRecordSize();
+		if (recordSize <= 0) {
+			throw new IllegalArgumentException("recordSize must be positive!");
+		}
+		if (buffer.remaining() % recordSize != 0) {
+			throw new IllegalArgumentException("buffer is not a sequence of " + recordSize + "-byte records!");
+		}
+		// slice() and asReadOnlyBuffer() reset the byte order to big-endian
+		this.buffer = buffer.slice().asReadOnlyBuffer().order(buffer.order());
+		this.codec = codec;
+		this.size = this.buffer.remaining() / recordSize;
+	}
+	
+	ByteBuffer getBuffer() {
+		return buffer.duplicate().order(buffer.order());
+	}
+	
+	int getRecordSize() {
+		return recordSize;
+	}
+	
+	int offsetOf(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return index * recordSize;
+	}
+	
+	@Override
+	public T get(int index) {
+		return codec.decode(buffer, offsetOf(index));
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+}
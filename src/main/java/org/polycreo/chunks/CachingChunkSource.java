@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.time.Duration;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * {@link ChunkSource} decorator which caches chunks by the {@link Chunkable} they were fetched by, that is, by
+ * its pagination token, pagination relation, maximum page size and direction, and by the segment and its bounds
+ * for a {@link SegmentChunkRequest}.
+ *
+ * <p>The cache is split into independently locked segments. When the cache exceeds the maximum number of
+ * chunks or the maximum total weight, it evicts the least recently used chunks of the segment of the newly
+ * cached chunk first, and then of the other segments. A chunk heavier than the maximum total weight is not
+ * cached. Chunks expire after the time to live since they were fetched. Concurrent misses for the same
+ * request share one fetch from the delegate.</p>
+ *
+ * <p>Writes to the underlying data should be followed by one of the invalidation methods, for example
+ * {@link #invalidateIf(BiPredicate)} with {@link KeysetInvalidator#affectedBy(java.io.Serializable)} to discard
+ * only the chunks whose key range covers the written key. A fetch which is in flight during an invalidation
+ * which may affect it is not cached.</p>
+ *
+ * <p>Cached chunks keep their fingerprint once computed, so {@link #findAllIfNoneMatch(Chunkable, String)}
+ * answers polls of unmodified chunks from the cache without comparing their content.</p>
+ *
+ * @param <T> type of element
+ */
+public class CachingChunkSource<T> implements ConditionalChunkSource<T> {
+	
+	private final ChunkSource<T> delegate;
+	
+	private final StripedLruCache<CacheKey, Chunk<T>> cache;
+	
+	
+	/**
+	 * Creates a cache bounded by the number of chunks.
+	 *
+	 * @param delegate source to fetch chunks from on a miss
+	 * @param maximumSize maximum number of cached chunks
+	 * @param timeToLive time to live of cached chunks, or {@literal null} not to expire
+	 */
+	public CachingChunkSource(ChunkSource<T> delegate, long maximumSize, Duration timeToLive) {
+		this(delegate, maximumSize, Long.MAX_VALUE, c -> 0, timeToLive);
+	}
+	
+	/**
+	 * Creates a cache bounded by the number of chunks and by their total weight, such as an estimate of bytes.
+	 *
+	 * @param delegate source to fetch chunks from on a miss
+	 * @param maximumSize maximum number of cached chunks
+	 * @param maximumWeight maximum total weight of cached chunks
+	 * @param weigher function to compute the weight of a chunk
+	 * @param timeToLive time to live of cached chunks, or {@literal null} not to expire
+	 */
+	public CachingChunkSource(ChunkSource<T> delegate, long maximumSize, long maximumWeight,
+			ToLongFunction<? super Chunk<T>> weigher, Duration timeToLive) {
+		this(delegate, maximumSize, maximumWeight, weigher, timeToLive, System::nanoTime);
+	}
+	
+	CachingChunkSource(ChunkSource<T> delegate, long maximumSize, long maximumWeight,
+			ToLongFunction<? super Chunk<T>> weigher, Duration timeToLive, LongSupplier ticker) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("delegate must not be null!");
+		}
+		if (weigher == null) {
+			throw new IllegalArgumentException("weigher must not be null!");
+		}
+		this.delegate = delegate;
+		this.cache = new StripedLruCache<>(maximumSize, maximumWeight, weigher,
+				timeToLive == null ? Long.MAX_VALUE : timeToLive.toNanos(), ticker);
+	}
+	
+	@Override
+	public Chunk<T> findAll(Chunkable chunkable) {
+		return cache.get(new CacheKey(chunkable), key -> delegate.findAll(key.getChunkable()));
+	}
+	
+	/**
+	 * Discards the cached chunk of the given request.
+	 *
+	 * @param chunkable the request
+	 */
+	public void invalidate(Chunkable chunkable) {
+		cache.invalidate(new CacheKey(chunkable));
+	}
+	
+	/**
+	 * Discards the cached chunks whose requests match the given predicate.
+	 *
+	 * @param predicate predicate of request
+	 */
+	public void invalidateIf(Predicate<? super Chunkable> predicate) {
+		cache.invalidateIf((key, chunk) -> predicate.test(key.getChunkable()));
+	}
+	
+	/**
+	 * Discards the cached chunks which match the given predicate of request and chunk.
+	 *
+	 * @param predicate predicate of request and chunk
+	 * @see KeysetInvalidator#affectedBy(java.io.Serializable)
+	 */
+	public void invalidateIf(BiPredicate<? super Chunkable, ? super Chunk<T>> predicate) {
+		cache.invalidateIf((key, chunk) -> predicate.test(key.getChunkable(), chunk));
+	}
+	
+	/**
+	 * Discards all of the cached chunks.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+	
+	/**
+	 * Returns the number of cached chunks, including expired ones which are not discarded yet.
+	 *
+	 * @return the number of cached chunks
+	 */
+	public long size() {
+		return cache.size();
+	}
+	
+	
+	@EqualsAndHashCode(of = {
+		"paginationToken",
+		"paginationRelation",
+		"maxPageSize",
+		"direction",
+		"segment",
+		"lowerBound",
+		"upperBound"
+	})
+	private static final class CacheKey {
+		
+		@Getter
+		private final Chunkable chunkable;
+		
+		private final String paginationToken;
+		
+		private final PaginationRelation paginationRelation;
+		
+		private final Integer maxPageSize;
+		
+		private final Direction direction;
+		
+		private final Integer segment;
+		
+		private final String lowerBound;
+		
+		private final String upperBound;
+		
+		
+		CacheKey(Chunkable chunkable) {
+			if (chunkable == null) {
+				throw new IllegalArgumentException("chunkable must not be null!");
+			}
+			this.chunkable = chunkable;
+			this.paginationToken = chunkable.getPaginationToken();
+			this.paginationRelation = chunkable.getPaginationRelation();
+			this.maxPageSize = chunkable.getMaxPageSize();
+			this.direction = chunkable.getDirection();
+			if (chunkable instanceof SegmentChunkRequest) {
+				SegmentChunkRequest request = (SegmentChunkRequest) chunkable;
+				this.segment = request.getSegment();
+				this.lowerBound = request.getLowerBound();
+				this.upperBound = request.getUpperBound();
+			} else {
+				this.segment = null;
+				this.lowerBound = null;
+				this.upperBound = null;
+			}
+		}
+	}
+}
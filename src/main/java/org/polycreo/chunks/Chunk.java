@@ -127,4 +127,18 @@ public interface Chunk<T>extends Collection<T> {
 	 * @return {@link Chunkable}
 	 */
 	Chunkable getChunkable();
+	
+	/**
+	 * Returns a 64-bit fingerprint of the content and the pagination token. Chunks which are equal as lists of
+	 * elements and have equal tokens have the same fingerprint, and the fingerprint is stable across processes
+	 * as long as the {@link Object#hashCode()} of the elements is.
+	 *
+	 * <p>The default implementation computes it on each call. Implementations are encouraged to cache it.</p>
+	 *
+	 * @return fingerprint
+	 * @see Chunks#etag(Chunk)
+	 */
+	default long getFingerprint() {
+		return Chunks.fingerprint(getContent(), getPaginationToken());
+	}
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * Receiver of the events of {@link ChunkEvents}, implemented on the Java Flight Recorder by a class which is built
+ * only by JDKs which have {@code jdk.jfr}.
+ *
+ * <p>{@code begin} methods return an event in progress, or {@literal null} if the event is disabled, which is
+ * passed to the corresponding {@code commit} method only if it is not {@literal null}.</p>
+ */
+interface ChunkEventSink {
+	
+	Object beginFetch();
+	
+	void commitFetch(Object event, Chunkable chunkable, Chunk<?> chunk);
+	
+	void chunkCreated(Chunk<?> chunk);
+	
+	Object beginToken();
+	
+	void commitToken(Object event, boolean encode, String token);
+	
+	Object beginSerialize();
+	
+	void commitSerialize(Object event, Chunk<?> chunk);
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.experimental.UtilityClass;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * Java Flight Recorder events of chunk operations: fetch from a source, creation by {@link ChunkFactory},
+ * encoding and decoding of pagination tokens, and serialization.
+ *
+ * <p>The events are disabled by default. Enable them in the recording settings, for example
+ * {@code -XX:StartFlightRecording:settings=profile} with {@code org.polycreo.chunks.*} events set to
+ * {@code enabled=true} in the {@code .jfc} file. While they are disabled, or if the runtime has no Flight Recorder,
+ * the methods of this class neither allocate nor read the clock.</p>
+ *
+ * <p>Durations are recorded by calling a {@code begin} method before the operation and passing its result to the
+ * {@code commit} method after it. The result is {@literal null} when the event is disabled.</p>
+ *
+ * <p>This class does not depend on {@code jdk.jfr}, which JDK 8 has only since 8u262. The events are implemented
+ * by a separate class, which is built only by JDKs which have {@code jdk.jfr} and is looked up reflectively. If it
+ * is not found or cannot be linked, the methods of this class do nothing.</p>
+ *
+ * <p>Fetch, creation and token events are recorded by this package only. Serialization events are public API so
+ * that serializers of chunks other than {@link org.polycreo.chunks.jackson.ChunkSerializer} can record them
+ * too.</p>
+ */
+@UtilityClass
+public class ChunkEvents {
+	
+	private static final String SINK_CLASS_NAME = "org.polycreo.chunks.FlightRecorderEventSink";
+	
+	private static final ChunkEventSink SINK = loadSink();
+	
+	private static final AtomicReference<SizeEstimator<Object>> SIZE_ESTIMATOR = new AtomicReference<>();
+	
+	
+	private static ChunkEventSink loadSink() {
+		try {
+			Class.forName("jdk.jfr.Event", false, ChunkEvents.class.getClassLoader());
+			return (ChunkEventSink) Class.forName(SINK_CLASS_NAME).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns whether the events are recorded when they are enabled, that is, whether the runtime has the Flight
+	 * Recorder and this library is built with the events.
+	 *
+	 * @return {@literal true} if the events are available
+	 */
+	public static boolean isAvailable() {
+		return SINK != null;
+	}
+	
+	/**
+	 * Sets the estimator of the bytes of elements which is used for the estimated bytes of chunks backed by a
+	 * list of objects. The estimator is called for every element of a chunk when an event of it is recorded.
+	 * Without an estimator, the estimated bytes of such chunks are {@code 0}.
+	 *
+	 * @param estimator estimator of elements, or {@literal null} to reset
+	 */
+	public static void setSizeEstimator(SizeEstimator<Object> estimator) {
+		SIZE_ESTIMATOR.set(estimator);
+	}
+	
+	/**
+	 * Begins a fetch event.
+	 *
+	 * @return event in progress, or {@literal null} if disabled
+	 */
+	static Object beginFetch() {
+		return SINK == null ? null : SINK.beginFetch();
+	}
+	
+	/**
+	 * Commits a fetch event.
+	 *
+	 * @param event the result of {@link #beginFetch()}
+	 * @param chunkable the request
+	 * @param chunk the fetched chunk
+	 */
+	static void commitFetch(Object event, Chunkable chunkable, Chunk<?> chunk) {
+		if (event != null) {
+			SINK.commitFetch(event, chunkable, chunk);
+		}
+	}
+	
+	/**
+	 * Records an instant event of a chunk created by {@link ChunkFactory}.
+	 *
+	 * @param chunk the created chunk
+	 */
+	static void chunkCreated(Chunk<?> chunk) {
+		if (SINK != null) {
+			SINK.chunkCreated(chunk);
+		}
+	}
+	
+	/**
+	 * Begins a token event.
+	 *
+	 * @return event in progress, or {@literal null} if disabled
+	 */
+	static Object beginToken() {
+		return SINK == null ? null : SINK.beginToken();
+	}
+	
+	/**
+	 * Commits a token event.
+	 *
+	 * @param event the result of {@link #beginToken()}
+	 * @param encode {@literal true} for encoding, {@literal false} for decoding
+	 * @param token the encoded or decoded token, can be {@literal null}
+	 */
+	static void commitToken(Object event, boolean encode, String token) {
+		if (event != null) {
+			SINK.commitToken(event, encode, token);
+		}
+	}
+	
+	/**
+	 * Begins a serialization event. Call this before writing a chunk, and {@link #commitSerialize(Object, Chunk)}
+	 * after it.
+	 *
+	 * @return event in progress, or {@literal null} if disabled
+	 */
+	public static Object beginSerialize() {
+		return SINK == null ? null : SINK.beginSerialize();
+	}
+	
+	/**
+	 * Commits a serialization event.
+	 *
+	 * @param event the result of {@link #beginSerialize()}
+	 * @param chunk the serialized chunk
+	 */
+	public static void commitSerialize(Object event, Chunk<?> chunk) {
+		if (event != null) {
+			SINK.commitSerialize(event, chunk);
+		}
+	}
+	
+	/**
+	 * Returns the estimated number of bytes of the content of the given chunk. Chunks of primitive values and of
+	 * fixed-width records are measured exactly, and other chunks by the estimator set by
+	 * {@link #setSizeEstimator(SizeEstimator)}.
+	 *
+	 * @param chunk chunk
+	 * @return bytes of content, or {@code 0} if unknown
+	 */
+	static long estimateBytes(Chunk<?> chunk) {
+		if (chunk instanceof LongChunk) {
+			return (long) chunk.size() * Long.BYTES;
+		}
+		if (chunk instanceof IntChunk) {
+			return (long) chunk.size() * Integer.BYTES;
+		}
+		if (chunk instanceof BufferChunk) {
+			return (long) chunk.size() * ((BufferChunk<?>) chunk).getRecordSize();
+		}
+		SizeEstimator<Object> estimator = SIZE_ESTIMATOR.get();
+		if (estimator == null) {
+			return 0;
+		}
+		long bytes = 0;
+		for (Object element : chunk) {
+			bytes += estimator.estimateBytes(element);
+		}
+		return bytes;
+	}
+}
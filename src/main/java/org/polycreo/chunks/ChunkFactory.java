@@ -16,12 +16,15 @@
 package org.polycreo.chunks;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.function.Function;
-
-import lombok.RequiredArgsConstructor;
+import java.util.function.Supplier;
 
 import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
 import org.polycreo.chunkrequests.PaginationTokenEncoder;
 import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
 import org.polycreo.id.DefaultIdExtractor;
@@ -29,7 +32,6 @@ import org.polycreo.id.DefaultIdExtractor;
 /**
  * Factory to create {@link Chunk} from list and {@link Chunkable}.
  */
-@RequiredArgsConstructor
 public class ChunkFactory {
 	
 	/**
@@ -39,24 +41,275 @@ public class ChunkFactory {
 	
 	private final PaginationTokenEncoder encoder;
 	
+	private final ChunkMetrics metrics;
+	
 	
+	/**
+	 * Creates a factory which extracts IDs by {@link DefaultIdExtractor} and encodes tokens by
+	 * {@link SimplePaginationTokenEncoder}.
+	 *
+	 * <p>Pass an {@link IdExtractorRegistry} to {@link #ChunkFactory(Function, PaginationTokenEncoder)} to opt in to
+	 * compiled ID accessors. Note that the registry prefers {@code getId()} and {@code id()} methods, so it may put
+	 * different keys into tokens than {@link DefaultIdExtractor} for some entities.</p>
+	 */
 	public ChunkFactory() {
 		this(new DefaultIdExtractor(), new SimplePaginationTokenEncoder());
 	}
 	
+	/**
+	 * Creates a factory which reports no metrics.
+	 *
+	 * @param idExtractor function to extract ID from entity
+	 * @param encoder encoder of pagination tokens
+	 */
+	public ChunkFactory(Function<? super Object, ? extends Serializable> idExtractor,
+			PaginationTokenEncoder encoder) {
+		this(idExtractor, encoder, ChunkMetrics.NOOP);
+	}
+	
+	/**
+	 * Creates a factory.
+	 *
+	 * @param idExtractor function to extract ID from entity
+	 * @param encoder encoder of pagination tokens
+	 * @param metrics listener to report created chunks and token computation to
+	 */
+	public ChunkFactory(Function<? super Object, ? extends Serializable> idExtractor,
+			PaginationTokenEncoder encoder, ChunkMetrics metrics) {
+		if (metrics == null) {
+			throw new IllegalArgumentException("metrics must not be null!");
+		}
+		this.idExtractor = idExtractor;
+		this.encoder = encoder;
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Creates a {@link Chunk} of a copy of the given content list, so the caller can reuse the list afterwards.
+	 *
+	 * <p>The pagination token is computed on first access of {@link Chunk#getPaginationToken()}, so chunks
+	 * which are only iterated skip ID extraction and token encoding entirely.</p>
+	 *
+	 * @param <E> entity type
+	 * @param content content of the chunk
+	 * @param chunkable the request which the content is retrieved by
+	 * @return chunk
+	 * @see #wrapChunk(List, Chunkable)
+	 */
 	public <E> Chunk<E> createChunk(List<E> content, Chunkable chunkable) {
-		String paginationToken = null;
-		if (content.isEmpty() == false) {
-			Serializable firstKey = null;
-			if (chunkable.getPaginationToken() != null && content.isEmpty() == false) {
-				firstKey = idExtractor.apply(content.get(0));
+		return wrapChunk(new ArrayList<>(content), chunkable);
+	}
+	
+	/**
+	 * Creates a {@link Chunk} which adopts the given content list without copying it, as
+	 * {@link ChunkImpl#wrap(List, String, Chunkable)} does. The ownership of the list is transferred to the chunk,
+	 * so the caller must not modify it afterwards, or the content and the pagination token of the chunk change.
+	 *
+	 * <p>The pagination token is computed on first access, as for {@link #createChunk(List, Chunkable)}.</p>
+	 *
+	 * @param <E> entity type
+	 * @param content content of the chunk
+	 * @param chunkable the request which the content is retrieved by
+	 * @return chunk backed by the given list
+	 */
+	public <E> Chunk<E> wrapChunk(List<E> content, Chunkable chunkable) {
+		if (content.isEmpty()) {
+			return created(ChunkImpl.wrap(content, null, chunkable));
+		}
+		return created(ChunkImpl.wrapDeferred(content, () -> computeToken(content, chunkable), chunkable));
+	}
+	
+	/**
+	 * Creates a {@link Chunk} which adopts the longest part of the given content within the given byte budget,
+	 * without copying it.
+	 *
+	 * <p>The content must be in presentation order, as for {@link #createChunk(List, Chunkable)}. Elements are
+	 * taken in the fetch order, that is, from the head for {@link PaginationRelation#NEXT NEXT} requests and from
+	 * the tail for {@link PaginationRelation#PREV PREV} requests, until their estimated bytes would exceed the
+	 * budget. At least one element is taken. If elements are left out, the chunk reports that more elements
+	 * follow, and its pagination token resumes after the elements taken.</p>
+	 *
+	 * <p>The content has already been fetched into memory, so this bounds what is retained and sent onward.
+	 * Sources which can stop reading early should bound the fetch itself, as {@link NavigableChunkSource} does.</p>
+	 *
+	 * @param <E> entity type
+	 * @param content content of the chunk
+	 * @param chunkable the request which the content is retrieved by
+	 * @param sizeEstimator estimator of element bytes
+	 * @param maxBytes maximum estimated bytes of the chunk, which is exceeded only by chunks of one element
+	 * @return chunk
+	 */
+	public <E> Chunk<E> createChunk(List<E> content, Chunkable chunkable, SizeEstimator<? super E> sizeEstimator,
+			long maxBytes) {
+		if (sizeEstimator == null) {
+			throw new IllegalArgumentException("sizeEstimator must not be null!");
+		}
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("maxBytes must be positive!");
+		}
+		boolean backward = chunkable.getPaginationRelation() == PaginationRelation.PREV;
+		int count = countWithinBudget(content, backward, sizeEstimator, maxBytes);
+		if (count == content.size()) {
+			return wrapChunk(content, chunkable);
+		}
+		List<E> taken = backward ? content.subList(content.size() - count, content.size()) : content.subList(0, count);
+		return created(ChunkImpl.wrapDeferred(taken, () -> computeToken(taken, chunkable), chunkable, false));
+	}
+	
+	/**
+	 * Creates a {@link BufferChunk} of the fixed-width records between the position and the limit of the given
+	 * buffer, which is adopted without copying. The pagination token is computed on first access, decoding
+	 * the first and the last records only.
+	 *
+	 * @param <E> entity type
+	 * @param records buffer of records
+	 * @param codec codec of records
+	 * @param chunkable the request which the content is retrieved by
+	 * @return chunk
+	 * @throws IllegalArgumentException if the remaining bytes are not a multiple of the record size
+	 */
+	public <E> BufferChunk<E> createChunk(ByteBuffer records, FixedWidthCodec<? extends E> codec,
+			Chunkable chunkable) {
+		BufferRecordList<E> content = new BufferRecordList<>(records, codec);
+		if (content.isEmpty()) {
+			return created(new BufferChunk<>(content, () -> null, chunkable));
+		}
+		return created(new BufferChunk<>(content, MemoizingSupplier.of(() -> computeToken(content, chunkable)),
+				chunkable));
+	}
+	
+	/**
+	 * Creates a {@link LongChunk} of the given values, which are the keys of the elements themselves.
+	 * The array is adopted without copying, and the caller must not modify it afterwards.
+	 * The pagination token is computed on first access from the first and the last values.
+	 *
+	 * @param values values of the chunk
+	 * @param chunkable the request which the values are retrieved by
+	 * @return chunk
+	 */
+	public LongChunk createChunk(long[] values, Chunkable chunkable) {
+		LongArrayView view = new LongArrayView(values);
+		return created(new LongChunk(view, keyToken(view, chunkable), chunkable, null));
+	}
+	
+	/**
+	 * Creates an {@link IntChunk} of the given values, which are the keys of the elements themselves.
+	 * The array is adopted without copying, and the caller must not modify it afterwards.
+	 * The pagination token is computed on first access from the first and the last values.
+	 *
+	 * @param values values of the chunk
+	 * @param chunkable the request which the values are retrieved by
+	 * @return chunk
+	 */
+	public IntChunk createChunk(int[] values, Chunkable chunkable) {
+		IntArrayView view = new IntArrayView(values);
+		return created(new IntChunk(view, keyToken(view, chunkable), chunkable, null));
+	}
+	
+	/**
+	 * Creates a {@link Chunk} from content which was fetched with one row of lookahead, that is,
+	 * with the limit returned by {@link #lookaheadLimit(Chunkable)}.
+	 *
+	 * <p>The content must be in presentation order, as for {@link #createChunk(List, Chunkable)}. If it holds
+	 * more rows than the requested maximum page size, the extra row is trimmed (the first one for
+	 * {@link PaginationRelation#PREV PREV} requests, the last one otherwise) and the chunk reports that more
+	 * elements follow. Otherwise the chunk reports that it is the last one, so clients do not make a further
+	 * round trip which would return an empty chunk. The content list is adopted without copying.</p>
+	 *
+	 * @param <E> entity type
+	 * @param content content of the chunk, including the lookahead row if any
+	 * @param chunkable the request which the content is retrieved by
+	 * @return chunk
+	 */
+	public <E> Chunk<E> createChunkWithLookahead(List<E> content, Chunkable chunkable) {
+		Integer maxPageSize = chunkable.getMaxPageSize();
+		if (maxPageSize == null || content.size() <= maxPageSize) {
+			if (content.isEmpty()) {
+				return created(ChunkImpl.wrap(content, null, chunkable, true));
 			}
-			Serializable lastKey = null;
-			if (content.isEmpty() == false) {
-				lastKey = idExtractor.apply(content.get(content.size() - 1));
+			return created(ChunkImpl.wrapDeferred(content, () -> computeToken(content, chunkable), chunkable, true));
+		}
+		List<E> trimmed = chunkable.getPaginationRelation() == PaginationRelation.PREV
+				? content.subList(content.size() - maxPageSize, content.size())
+				: content.subList(0, maxPageSize);
+		return created(ChunkImpl.wrapDeferred(trimmed, () -> computeToken(trimmed, chunkable), chunkable, false));
+	}
+	
+	/**
+	 * Returns the number of rows a source should fetch for the given request to be passed to
+	 * {@link #createChunkWithLookahead(List, Chunkable)}, that is, one more than the maximum page size.
+	 *
+	 * @param chunkable the request
+	 * @return the limit of rows to fetch, or {@literal null} if the request is unbounded
+	 */
+	public static Integer lookaheadLimit(Chunkable chunkable) {
+		Integer maxPageSize = chunkable.getMaxPageSize();
+		if (maxPageSize == null || maxPageSize == Integer.MAX_VALUE) {
+			return maxPageSize;
+		}
+		return maxPageSize + 1;
+	}
+	
+	private static <E> int countWithinBudget(List<E> content, boolean fromTail,
+			SizeEstimator<? super E> sizeEstimator, long maxBytes) {
+		ListIterator<E> iterator = content.listIterator(fromTail ? content.size() : 0);
+		long bytes = 0;
+		int count = 0;
+		while (fromTail ? iterator.hasPrevious() : iterator.hasNext()) {
+			bytes += sizeEstimator.estimateBytes(fromTail ? iterator.previous() : iterator.next());
+			if (bytes > maxBytes && count > 0) {
+				break;
 			}
-			paginationToken = encoder.encode(firstKey, lastKey);
+			count++;
+		}
+		return count;
+	}
+	
+	private <C extends Chunk<?>> C created(C chunk) {
+		metrics.chunkCreated(chunk);
+		ChunkEvents.chunkCreated(chunk);
+		return chunk;
+	}
+	
+	private String computeToken(List<?> content, Chunkable chunkable) {
+		long start = startTiming();
+		Serializable firstKey = null;
+		if (chunkable.getPaginationToken() != null) {
+			firstKey = idExtractor.apply(content.get(0));
+		}
+		Serializable lastKey = idExtractor.apply(content.get(content.size() - 1));
+		return encode(firstKey, lastKey, start);
+	}
+	
+	/**
+	 * Returns the supplier of the pagination token of a chunk of the given values, which are the keys of the
+	 * elements themselves.
+	 */
+	private Supplier<String> keyToken(PrimitiveArrayView<?> values, Chunkable chunkable) {
+		if (values.isEmpty()) {
+			return () -> null;
+		}
+		boolean includeFirstKey = chunkable.getPaginationToken() != null;
+		return MemoizingSupplier.of(() -> encode(includeFirstKey ? values.get(0) : null,
+				values.get(values.size() - 1), startTiming()));
+	}
+	
+	private long startTiming() {
+		// skip reading the clock when nothing is recorded
+		return metrics == ChunkMetrics.NOOP ? 0 : System.nanoTime();
+	}
+	
+	private String encode(Serializable firstKey, Serializable lastKey, long start) {
+		Object event = ChunkEvents.beginToken();
+		String token;
+		if (metrics == ChunkMetrics.NOOP) {
+			token = encoder.encode(firstKey, lastKey);
+		} else {
+			long extracted = System.nanoTime();
+			token = encoder.encode(firstKey, lastKey);
+			metrics.tokenComputed(extracted - start, System.nanoTime() - extracted);
 		}
-		return new ChunkImpl<>(content, paginationToken, chunkable);
+		ChunkEvents.commitToken(event, true, token);
+		return token;
 	}
 }
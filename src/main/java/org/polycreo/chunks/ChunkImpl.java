@@ -21,12 +21,12 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 import org.polycreo.chunkrequests.ChunkRequest;
@@ -42,23 +42,29 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  *
  * @param <T> entity type
  */
-@EqualsAndHashCode(of = {
-	"content",
-	"paginationToken"
-})
 public class ChunkImpl<T> implements Chunk<T> {
 	
 	@JsonProperty
-	private final List<T> content = new ArrayList<>();
+	private final List<T> content;
 	
-	@JsonProperty
-	@Getter
-	private final String paginationToken;
+	private final List<T> unmodifiableContent;
+	
+	private final Supplier<String> paginationToken;
 	
 	@JsonIgnore
 	@Getter
 	private final Chunkable chunkable;
 	
+	/**
+	 * Whether this chunk is the last one, or {@literal null} if it should be inferred from the content size.
+	 */
+	private final Boolean last;
+	
+	// guarded by this, computed on first access
+	private long fingerprint;
+	
+	private boolean fingerprinted;
+	
 	
 	/**
 	 * Creates a new {@link Chunk} with the given content and the given governing
@@ -69,22 +75,111 @@ public class ChunkImpl<T> implements Chunk<T> {
 	 * @param chunkable can be {@literal null}.
 	 */
 	public ChunkImpl(List<T> content, String paginationToken, Chunkable chunkable) {
+		this(copyOf(content), () -> paginationToken, chunkable, null);
+	}
+	
+	/**
+	 * Creates a new {@link ChunkImpl} which adopts the given content list without copying it.
+	 *
+	 * @param content content, must not be {@literal null}.
+	 * @param paginationToken supplier of token, must not be {@literal null}.
+	 * @param chunkable can be {@literal null}.
+	 * @param last whether no more elements follow in the fetch direction, or {@literal null} to infer it
+	 */
+	protected ChunkImpl(List<T> content, Supplier<String> paginationToken, Chunkable chunkable, Boolean last) {
 		if (content == null) {
 			throw new IllegalArgumentException("Content must not be null!");
 		}
-		this.content.addAll(content);
+		this.content = content;
+		this.unmodifiableContent = Collections.unmodifiableList(content);
 		this.paginationToken = paginationToken;
 		this.chunkable = chunkable;
+		this.last = last;
+	}
+	
+	/**
+	 * Creates a new {@link ChunkImpl} which adopts the given content list without copying it.
+	 * The ownership of the list is transferred to the chunk, so the caller must not modify it afterwards.
+	 *
+	 * @param <T> entity type
+	 * @param content content, must not be {@literal null}.
+	 * @param paginationToken token, can be {@literal null}.
+	 * @param chunkable can be {@literal null}.
+	 * @return chunk backed by the given list
+	 */
+	public static <T> ChunkImpl<T> wrap(List<T> content, String paginationToken, Chunkable chunkable) {
+		return new ChunkImpl<>(content, () -> paginationToken, chunkable, null);
+	}
+	
+	/**
+	 * Creates a new {@link ChunkImpl} which adopts the given content list without copying it, and computes
+	 * its pagination token on first access. The token is computed at most once, even if it is accessed
+	 * concurrently, so chunks which are only iterated never pay for it.
+	 *
+	 * @param <T> entity type
+	 * @param content content, must not be {@literal null}.
+	 * @param paginationTokenSupplier supplier of token, must not be {@literal null}.
+	 * @param chunkable can be {@literal null}.
+	 * @return chunk backed by the given list
+	 */
+	public static <T> ChunkImpl<T> wrapDeferred(List<T> content, Supplier<String> paginationTokenSupplier,
+			Chunkable chunkable) {
+		return new ChunkImpl<>(content, MemoizingSupplier.of(paginationTokenSupplier), chunkable, null);
+	}
+	
+	/**
+	 * Creates a new {@link ChunkImpl} which adopts the given content list without copying it, and reports
+	 * the given definitive {@link #isLast()} state instead of inferring it from the content size.
+	 *
+	 * @param <T> entity type
+	 * @param content content, must not be {@literal null}.
+	 * @param paginationToken token, can be {@literal null}.
+	 * @param chunkable can be {@literal null}.
+	 * @param last whether no more elements follow in the fetch direction
+	 * @return chunk backed by the given list
+	 * @see ChunkFactory#createChunkWithLookahead(List, Chunkable)
+	 */
+	public static <T> ChunkImpl<T> wrap(List<T> content, String paginationToken, Chunkable chunkable,
+			boolean last) {
+		return new ChunkImpl<>(content, () -> paginationToken, chunkable, last);
+	}
+	
+	/**
+	 * Creates a new {@link ChunkImpl} which adopts the given content list without copying it, computes
+	 * its pagination token on first access, and reports the given definitive {@link #isLast()} state
+	 * instead of inferring it from the content size.
+	 *
+	 * @param <T> entity type
+	 * @param content content, must not be {@literal null}.
+	 * @param paginationTokenSupplier supplier of token, must not be {@literal null}.
+	 * @param chunkable can be {@literal null}.
+	 * @param last whether no more elements follow in the fetch direction
+	 * @return chunk backed by the given list
+	 * @see ChunkFactory#createChunkWithLookahead(List, Chunkable)
+	 */
+	public static <T> ChunkImpl<T> wrapDeferred(List<T> content, Supplier<String> paginationTokenSupplier,
+			Chunkable chunkable, boolean last) {
+		return new ChunkImpl<>(content, MemoizingSupplier.of(paginationTokenSupplier), chunkable, last);
+	}
+	
+	private static <T> List<T> copyOf(List<T> content) {
+		return content == null ? null : new ArrayList<>(content);
 	}
 	
 	@Override
 	public Iterator<T> iterator() {
-		return content.iterator();
+		return unmodifiableContent.iterator();
 	}
 	
 	@Override
 	public List<T> getContent() {
-		return Collections.unmodifiableList(content);
+		return unmodifiableContent;
+	}
+	
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		// iterates the backing list directly, without allocating an iterator
+		content.forEach(action);
 	}
 	
 	@Override
@@ -92,6 +187,12 @@ public class ChunkImpl<T> implements Chunk<T> {
 		return content.stream();
 	}
 	
+	@Override
+	@JsonProperty
+	public String getPaginationToken() {
+		return paginationToken.get();
+	}
+	
 	@Override
 	public Direction getDirection() {
 		return chunkable == null ? null : chunkable.getDirection();
@@ -112,14 +213,31 @@ public class ChunkImpl<T> implements Chunk<T> {
 	
 	@Override
 	public boolean hasPrevious() {
+		if (chunkable == null) {
+			return false;
+		}
 		if (isForward()) {
 			return isFirst() == false;
 		}
+		if (last != null) {
+			return last == false;
+		}
 		return hasContent();
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>A chunk without {@link Chunkable}, such as {@link Chunks#emptyChunk()}, is both the first and the last.</p>
+	 */
 	@Override
 	public boolean isLast() {
+		if (last != null) {
+			return last;
+		}
+		if (chunkable == null) {
+			return true;
+		}
 		Integer maxPageSize = chunkable.getMaxPageSize();
 		if (maxPageSize == null) {
 			return false;
@@ -129,7 +247,7 @@ public class ChunkImpl<T> implements Chunk<T> {
 	
 	@Override
 	public boolean isFirst() {
-		return chunkable.getPaginationToken() == null;
+		return chunkable == null || chunkable.getPaginationToken() == null;
 	}
 	
 	@Override
@@ -137,7 +255,7 @@ public class ChunkImpl<T> implements Chunk<T> {
 		if (hasNext() == false) {
 			return null;
 		}
-		return new ChunkRequest(paginationToken, PaginationRelation.NEXT,
+		return new ChunkRequest(getPaginationToken(), PaginationRelation.NEXT,
 				chunkable.getMaxPageSize(), chunkable.getDirection());
 	}
 	
@@ -146,24 +264,72 @@ public class ChunkImpl<T> implements Chunk<T> {
 		if (hasPrevious() == false) {
 			return null;
 		}
-		return new ChunkRequest(paginationToken, PaginationRelation.PREV,
+		return new ChunkRequest(getPaginationToken(), PaginationRelation.PREV,
 				chunkable.getMaxPageSize(), chunkable.getDirection());
 	}
 	
 	@Override
 	public <S> Chunk<S> map(Function<? super T, ? extends S> mapper) {
-		return new ChunkImpl<>(getConvertedContent(mapper), paginationToken, chunkable);
+		return withContent(getConvertedContent(mapper));
+	}
+	
+	/**
+	 * Creates a new {@link ChunkImpl} of the given content which shares the pagination token, {@link Chunkable}
+	 * and navigation state of this chunk. The content must correspond to the content of this chunk element by
+	 * element, as a mapped view does.
+	 *
+	 * @param <S> element type of the new chunk
+	 * @param convertedContent content of the new chunk, adopted without copying
+	 * @return chunk of the given content
+	 */
+	protected <S> ChunkImpl<S> withContent(List<S> convertedContent) {
+		return new ChunkImpl<>(convertedContent, paginationToken, chunkable, last);
+	}
+	
+	/**
+	 * Returns a view of the portion of this chunk between the specified {@code fromIndex}, inclusive,
+	 * and {@code toIndex}, exclusive. The view does not copy the content.
+	 *
+	 * <p>The pagination token of this chunk points past its last element, so it would skip the elements left out
+	 * of the view. The view therefore has neither pagination token nor {@link Chunkable}: it is both the first and
+	 * the last chunk, and cannot be navigated from. Navigate from this chunk instead.</p>
+	 *
+	 * @param fromIndex low endpoint (inclusive) of the view
+	 * @param toIndex high endpoint (exclusive) of the view
+	 * @return a view of the specified range within this chunk
+	 * @throws IndexOutOfBoundsException for an illegal endpoint index value
+	 */
+	public ChunkImpl<T> subChunk(int fromIndex, int toIndex) {
+		return new ChunkImpl<>(content.subList(fromIndex, toIndex), () -> null, null, null);
+	}
+	
+	/**
+	 * Returns a view of this chunk in reverse order. The view shares the pagination token, {@link Chunkable}
+	 * and navigation state of this chunk, and does not copy the content.
+	 *
+	 * @return a reverse-ordered view of this chunk
+	 */
+	public ChunkImpl<T> reversed() {
+		return new ChunkImpl<>(Chunks.reversed(content), paginationToken, chunkable, pinLast());
+	}
+	
+	private Boolean pinLast() {
+		// isLast() of backward chunks only drives navigation when it is definitive
+		return chunkable == null || isForward() == false ? last : Boolean.valueOf(isLast());
 	}
 	
 	private boolean isForward() {
-		return Optional.ofNullable(chunkable.getPaginationRelation())
-			.map(PaginationRelation.NEXT::equals)
-			.orElse(true);
+		// called on every navigation, so avoid allocating on this path
+		return chunkable == null || chunkable.getPaginationRelation() != PaginationRelation.PREV;
 	}
 	
 	/**
 	 * Applies the given {@link Function} to the content of the {@link Chunk}.
 	 *
+	 * <p>The returned list is a lazy view: each element is mapped on first access and the result is memoized.
+	 * When the content of this chunk is itself a lazily mapped view, the mappers are fused so that chained
+	 * {@link #map(Function)} calls do not build intermediate lists.</p>
+	 *
 	 * @param mapper must not be {@literal null}.
 	 * @return mapped content list
 	 * @since 0.11
@@ -172,7 +338,10 @@ public class ChunkImpl<T> implements Chunk<T> {
 		if (mapper == null) {
 			throw new IllegalArgumentException("mapper must not be null!");
 		}
-		return content.stream().map(mapper).collect(Collectors.toList());
+		if (content instanceof MappedList) {
+			return ((MappedList<?, T>) content).andThen(mapper);
+		}
+		return new MappedList<>(content, mapper);
 	}
 	
 	@Override
@@ -235,6 +404,47 @@ public class ChunkImpl<T> implements Chunk<T> {
 		throw new UnsupportedOperationException();
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The fingerprint is computed on first access and cached.</p>
+	 */
+	@Override
+	@JsonIgnore
+	public long getFingerprint() {
+		// plain fields under the monitor, so chunks which are never fingerprinted allocate nothing for it
+		synchronized (this) {
+			if (fingerprinted == false) {
+				fingerprint = Chunks.fingerprint(content, getPaginationToken());
+				fingerprinted = true;
+			}
+			return fingerprint;
+		}
+	}
+	
+	/**
+	 * Compares the content and the pagination token with those of the given chunk. Chunks of different
+	 * fingerprints are told apart without comparing the content element by element.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof ChunkImpl == false) {
+			return false;
+		}
+		ChunkImpl<?> other = (ChunkImpl<?>) obj;
+		return getFingerprint() == other.getFingerprint()
+				&& content.equals(other.content)
+				&& Objects.equals(getPaginationToken(), other.getPaginationToken());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(getFingerprint());
+	}
+	
 	@Override
 	public String toString() {
 		String contentType = "UNKNOWN";
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * {@link Iterator} over all elements of the chunks which are retrieved from a chunk source by following
+ * {@link Chunk#nextChunkable()}.
+ *
+ * <p>Up to {@code prefetchDepth} chunks following the one being consumed are fetched ahead, so that the fetch
+ * of chunk N+1 overlaps with the consumption of chunk N. Since each chunk request depends on the pagination
+ * token of the previous chunk, prefetched chunks are fetched one after another.
+ * The iteration ends when a chunk has no content or {@link Chunk#hasNext()} returns {@code false}.</p>
+ *
+ * <p>This iterator is not thread-safe. It should be closed to cancel prefetching when it is abandoned before
+ * the end.</p>
+ *
+ * @param <T> type of element
+ */
+public class ChunkIterator<T> implements Iterator<T>, AutoCloseable {
+	
+	private final AsyncChunkSource<T> source;
+	
+	private final Chunkable firstChunkable;
+	
+	private final int prefetchDepth;
+	
+	private final Deque<CompletableFuture<Chunk<T>>> pending = new ArrayDeque<>();
+	
+	private CompletableFuture<Chunk<T>> tail;
+	
+	private Iterator<T> current = Collections.emptyIterator();
+	
+	private boolean finished;
+	
+	
+	/**
+	 * Creates an iterator which fetches chunks from the given source on the given executor.
+	 *
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param executor executor to run fetches on
+	 * @param prefetchDepth number of chunks to fetch ahead, {@code 0} to fetch each chunk on demand
+	 */
+	public ChunkIterator(ChunkSource<T> source, Chunkable firstChunkable, Executor executor, int prefetchDepth) {
+		this(requireSource(source).async(executor), firstChunkable, prefetchDepth);
+	}
+	
+	/**
+	 * Creates an iterator which fetches chunks from the given asynchronous source.
+	 *
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param prefetchDepth number of chunks to fetch ahead, {@code 0} to fetch each chunk on demand
+	 */
+	public ChunkIterator(AsyncChunkSource<T> source, Chunkable firstChunkable, int prefetchDepth) {
+		if (source == null) {
+			throw new IllegalArgumentException("source must not be null!");
+		}
+		if (firstChunkable == null) {
+			throw new IllegalArgumentException("firstChunkable must not be null!");
+		}
+		if (prefetchDepth < 0) {
+			throw new IllegalArgumentException("prefetchDepth must not be negative!");
+		}
+		this.source = source;
+		this.firstChunkable = firstChunkable;
+		this.prefetchDepth = prefetchDepth;
+		schedule(prefetchDepth);
+	}
+	
+	private static <T> ChunkSource<T> requireSource(ChunkSource<T> source) {
+		if (source == null) {
+			throw new IllegalArgumentException("source must not be null!");
+		}
+		return source;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		while (current.hasNext() == false) {
+			if (finished) {
+				return false;
+			}
+			schedule(1);
+			Chunk<T> chunk = AsyncExecutors.join(pending.poll());
+			if (chunk == null) {
+				close();
+				return false;
+			}
+			current = chunk.iterator();
+			schedule(prefetchDepth);
+		}
+		return true;
+	}
+	
+	@Override
+	public T next() {
+		if (hasNext() == false) {
+			throw new NoSuchElementException();
+		}
+		return current.next();
+	}
+	
+	/**
+	 * Stops the iteration and cancels the prefetching chunks.
+	 */
+	@Override
+	public void close() {
+		finished = true;
+		current = Collections.emptyIterator();
+		for (CompletableFuture<Chunk<T>> future : pending) {
+			future.cancel(false);
+		}
+		pending.clear();
+	}
+	
+	private void schedule(int depth) {
+		while (finished == false && pending.size() < depth) {
+			if (tail == null) {
+				tail = source.findAllAsync(firstChunkable).toCompletableFuture();
+			} else {
+				tail = tail.thenCompose(this::fetchNext);
+			}
+			pending.add(tail);
+		}
+	}
+	
+	private CompletionStage<Chunk<T>> fetchNext(Chunk<T> previous) {
+		if (previous == null || previous.hasContent() == false || previous.hasNext() == false) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return source.findAllAsync(previous.nextChunkable());
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * Listener of pagination events, which {@link ChunkFactory} and {@link MeteredChunkSource} report to.
+ *
+ * <p>Every method has an empty default, so implementations override only the events they record. The methods
+ * are called on every page, from any thread, and must return quickly without throwing. Implementations are
+ * the point to bridge to a metrics system; {@link StripedChunkMetrics} records them in process.</p>
+ *
+ * <p>Reporting to {@link #NOOP} costs close to nothing: the callers skip measuring elapsed time for it.</p>
+ */
+public interface ChunkMetrics {
+	
+	/**
+	 * Listener which records nothing.
+	 */
+	ChunkMetrics NOOP = new ChunkMetrics() {
+	};
+	
+	
+	/**
+	 * Called when a chunk has been created.
+	 *
+	 * @param chunk the chunk
+	 */
+	default void chunkCreated(Chunk<?> chunk) {
+		// nothing to record
+	}
+	
+	/**
+	 * Called when a pagination token has been computed.
+	 *
+	 * @param idExtractionNanos nanoseconds spent extracting the keys of the first and the last elements
+	 * @param encodingNanos nanoseconds spent in {@link org.polycreo.chunkrequests.PaginationTokenEncoder#encode}
+	 */
+	default void tokenComputed(long idExtractionNanos, long encodingNanos) {
+		// nothing to record
+	}
+	
+	/**
+	 * Called when a chunk has been fetched from a source.
+	 *
+	 * @param chunkable the request, whose pagination token is {@literal null} for the first page of a walk
+	 * @param chunk the chunk
+	 * @param nanos nanoseconds spent in the source
+	 */
+	default void chunkFetched(Chunkable chunkable, Chunk<?> chunk, long nanos) {
+		// nothing to record
+	}
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Cold {@link Publisher} which paginates a chunk source by following {@link Chunk#nextChunkable()}.
+ *
+ * <p>Each subscription walks the source from the first request. The next chunk is fetched only when
+ * the items of the current chunk are drained and downstream has outstanding demand, so at most one fetch is
+ * in flight per subscription and memory is bounded by a single chunk. Chunks without content are not emitted,
+ * and the publisher completes when a chunk has no content or {@link Chunk#hasNext()} returns {@code false}.</p>
+ *
+ * @param <T> element type of chunk
+ * @param <R> type of published item
+ */
+class ChunkPublisher<T, R> implements Publisher<R> {
+	
+	private final AsyncChunkSource<T> source;
+	
+	private final Chunkable firstChunkable;
+	
+	private final Function<? super Chunk<T>, ? extends Iterator<? extends R>> expander;
+	
+	
+	/**
+	 * Creates a publisher.
+	 *
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param expander function to expand a chunk into published items
+	 */
+	ChunkPublisher(AsyncChunkSource<T> source, Chunkable firstChunkable,
+			Function<? super Chunk<T>, ? extends Iterator<? extends R>> expander) {
+		if (source == null) {
+			throw new IllegalArgumentException("source must not be null!");
+		}
+		if (firstChunkable == null) {
+			throw new IllegalArgumentException("firstChunkable must not be null!");
+		}
+		this.source = source;
+		this.firstChunkable = firstChunkable;
+		this.expander = expander;
+	}
+	
+	@Override
+	public void subscribe(Subscriber<? super R> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("subscriber must not be null"); // NOPMD - reactive streams rule 1.9
+		}
+		ChunkSubscription subscription = new ChunkSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+		subscription.drain();
+	}
+	
+	
+	private class ChunkSubscription implements Subscription {
+		
+		private final Subscriber<? super R> subscriber;
+		
+		private final AtomicLong requested = new AtomicLong();
+		
+		private final AtomicInteger wip = new AtomicInteger();
+		
+		private final AtomicBoolean cancelled = new AtomicBoolean();
+		
+		private Iterator<? extends R> current = Collections.emptyIterator();
+		
+		private Chunkable nextChunkable = firstChunkable;
+		
+		private boolean fetching;
+		
+		private Chunk<T> fetched;
+		
+		private Throwable error;
+		
+		
+		ChunkSubscription(Subscriber<? super R> subscriber) {
+			this.subscriber = subscriber;
+		}
+		
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				error = new IllegalArgumentException("non-positive request: " + n); // reactive streams rule 3.9
+			} else {
+				requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+			}
+			drain();
+		}
+		
+		@Override
+		public void cancel() {
+			cancelled.set(true);
+		}
+		
+		/**
+		 * Emits items while there is demand, and fetches the next chunk when the current one is drained.
+		 * The loop is serialized by {@code wip}, so signals are never sent concurrently.
+		 */
+		void drain() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				drainLoop();
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+		
+		private void drainLoop() { // NOPMD - NPathComplexity
+			while (cancelled.get() == false) {
+				if (error != null) {
+					cancelled.set(true);
+					subscriber.onError(error);
+					return;
+				}
+				if (fetched != null) {
+					Chunk<T> chunk = fetched;
+					fetched = null;
+					current = expander.apply(chunk);
+					nextChunkable = chunk.hasContent() && chunk.hasNext() ? chunk.nextChunkable() : null;
+				}
+				if (current.hasNext()) {
+					if (requested.get() == 0) {
+						return;
+					}
+					R item = current.next();
+					requested.decrementAndGet();
+					subscriber.onNext(item);
+				} else if (fetching) {
+					return;
+				} else if (nextChunkable == null) {
+					cancelled.set(true);
+					subscriber.onComplete();
+					return;
+				} else if (requested.get() == 0) {
+					return;
+				} else {
+					fetch();
+				}
+			}
+		}
+		
+		private void fetch() {
+			Chunkable chunkable = nextChunkable;
+			nextChunkable = null;
+			fetching = true;
+			CompletionStage<Chunk<T>> stage;
+			try {
+				stage = source.findAllAsync(chunkable);
+			} catch (RuntimeException e) { // NOPMD - propagate any failure to subscriber
+				fetching = false;
+				error = e;
+				return;
+			}
+			stage.whenComplete((chunk, e) -> {
+				if (e != null) {
+					error = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+				} else if (chunk == null) {
+					fetched = Chunks.emptyChunk();
+				} else {
+					fetched = chunk;
+				}
+				fetching = false;
+				drain();
+			});
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * Source which serves {@link Chunk}s synchronously.
+ *
+ * @param <T> type of element
+ * @see AsyncChunkSource
+ */
+@FunctionalInterface
+public interface ChunkSource<T> {
+	
+	/**
+	 * Returns a {@link Chunk} of elements meeting the paging restriction provided in the {@link Chunkable} object.
+	 *
+	 * @param chunkable pagination information
+	 * @return a chunk of elements
+	 */
+	Chunk<T> findAll(Chunkable chunkable);
+	
+	/**
+	 * Returns an {@link AsyncChunkSource} which runs this source on the given executor.
+	 *
+	 * @param executor executor to run this source on
+	 * @return asynchronous view of this source
+	 */
+	default AsyncChunkSource<T> async(Executor executor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("executor must not be null!");
+		}
+		return chunkable -> CompletableFuture.supplyAsync(() -> findAll(chunkable), executor);
+	}
+	
+	/**
+	 * Returns an {@link AsyncChunkSource} which runs this source on a virtual thread per fetch, when the runtime
+	 * supports virtual threads. Otherwise it runs on a shared pool of daemon threads.
+	 *
+	 * @return asynchronous view of this source
+	 */
+	default AsyncChunkSource<T> async() {
+		return async(AsyncExecutors.getDefault());
+	}
+}
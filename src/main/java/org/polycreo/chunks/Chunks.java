@@ -15,10 +15,21 @@
  */
 package org.polycreo.chunks;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import lombok.experimental.UtilityClass;
 
+import org.polycreo.chunkrequests.Chunkable;
+import org.reactivestreams.Publisher;
+
 /**
  * Utilities about {@link Chunk}.
  */
@@ -29,7 +40,13 @@ public class Chunks {
 	 * Empty chunk shared instance.
 	 */
 	@SuppressWarnings("rawtypes")
-	public static final Chunk EMPTY_CHUNK = new ChunkImpl<>(Collections.emptyList(), null, null);
+	public static final Chunk EMPTY_CHUNK = ChunkImpl.wrap(Collections.emptyList(), null, null);
+	
+	/**
+	 * Page size used by the sources of this package for requests which do not specify
+	 * {@link Chunkable#getMaxPageSize()}.
+	 */
+	static final int DEFAULT_MAX_PAGE_SIZE = 20;
 	
 	
 	/**
@@ -42,4 +59,231 @@ public class Chunks {
 	public static <T> Chunk<T> emptyChunk() {
 		return EMPTY_CHUNK;
 	}
+	
+	/**
+	 * Returns a weak HTTP entity tag of the given chunk, derived from {@link Chunk#getFingerprint()}.
+	 *
+	 * @param chunk chunk
+	 * @return entity tag, such as {@code W/"0123456789abcdef"}
+	 */
+	public static String etag(Chunk<?> chunk) {
+		return String.format(Locale.ENGLISH, "W/\"%016x\"", chunk.getFingerprint());
+	}
+	
+	/**
+	 * Computes the fingerprint of the given content and pagination token.
+	 *
+	 * @param content content
+	 * @param paginationToken token, can be {@literal null}
+	 * @return fingerprint
+	 * @see Chunk#getFingerprint()
+	 */
+	static long fingerprint(List<?> content, String paginationToken) {
+		long hash = mix(content.size());
+		for (Object element : content) {
+			hash = mix(hash * 31 + (element == null ? 0 : element.hashCode()));
+		}
+		return mix(hash * 31 + (paginationToken == null ? 0 : paginationToken.hashCode()));
+	}
+	
+	/**
+	 * Finalization mix of MurmurHash3, to spread the bits of 32-bit hash codes over 64 bits.
+	 */
+	private static long mix(long h) {
+		long x = h;
+		x ^= x >>> 33;
+		x *= 0xff51afd7ed558ccdL;
+		x ^= x >>> 33;
+		x *= 0xc4ceb9fe1a85ec53L;
+		x ^= x >>> 33;
+		return x;
+	}
+	
+	/**
+	 * Returns a reverse-ordered view of the given list, without copying it.
+	 * Reversing the returned view again gives back the original list.
+	 *
+	 * @param <T> element type
+	 * @param list list to reverse, must not be {@literal null}
+	 * @return reverse-ordered read-only view
+	 */
+	public static <T> List<T> reversed(List<T> list) {
+		if (list instanceof ReversedList) {
+			return ((ReversedList<T>) list).getDelegate();
+		}
+		return new ReversedList<>(list);
+	}
+	
+	/**
+	 * Returns an iterator over all elements of the chunks retrieved from the given source, starting with
+	 * the given request and following {@link Chunk#nextChunkable()}. Each chunk is fetched on demand
+	 * in the calling thread.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @return iterator over all elements
+	 */
+	public static <T> ChunkIterator<T> iterateAll(ChunkSource<T> source, Chunkable firstChunkable) {
+		return new ChunkIterator<>(source, firstChunkable, Runnable::run, 0);
+	}
+	
+	/**
+	 * Returns an iterator over all elements of the chunks retrieved from the given source, starting with
+	 * the given request and following {@link Chunk#nextChunkable()}. Up to {@code prefetchDepth} chunks
+	 * are fetched ahead on the given executor while the current one is consumed.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param executor executor to run fetches on
+	 * @param prefetchDepth number of chunks to fetch ahead
+	 * @return iterator over all elements
+	 */
+	public static <T> ChunkIterator<T> iterateAll(ChunkSource<T> source, Chunkable firstChunkable,
+			Executor executor, int prefetchDepth) {
+		return new ChunkIterator<>(source, firstChunkable, executor, prefetchDepth);
+	}
+	
+	/**
+	 * Returns an iterator over all elements of the chunks retrieved from the given asynchronous source,
+	 * starting with the given request and following {@link Chunk#nextChunkable()}. Up to {@code prefetchDepth}
+	 * chunks are fetched ahead while the current one is consumed.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param prefetchDepth number of chunks to fetch ahead
+	 * @return iterator over all elements
+	 */
+	public static <T> ChunkIterator<T> iterateAll(AsyncChunkSource<T> source, Chunkable firstChunkable,
+			int prefetchDepth) {
+		return new ChunkIterator<>(source, firstChunkable, prefetchDepth);
+	}
+	
+	/**
+	 * Returns a sequential stream of all elements of the chunks retrieved from the given source.
+	 * Closing the stream cancels prefetching.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param executor executor to run fetches on
+	 * @param prefetchDepth number of chunks to fetch ahead
+	 * @return stream of all elements
+	 * @see #iterateAll(ChunkSource, Chunkable, Executor, int)
+	 */
+	public static <T> Stream<T> streamAll(ChunkSource<T> source, Chunkable firstChunkable,
+			Executor executor, int prefetchDepth) {
+		return stream(iterateAll(source, firstChunkable, executor, prefetchDepth));
+	}
+	
+	/**
+	 * Returns a sequential stream of all elements of the chunks retrieved from the given source.
+	 * Each chunk is fetched on demand in the calling thread.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @return stream of all elements
+	 * @see #iterateAll(ChunkSource, Chunkable)
+	 */
+	public static <T> Stream<T> streamAll(ChunkSource<T> source, Chunkable firstChunkable) {
+		return stream(iterateAll(source, firstChunkable));
+	}
+	
+	/**
+	 * Returns a sequential stream of all elements of the given segments, which are retrieved from the given source
+	 * segment by segment. Making the stream parallel fetches different segments concurrently in the common
+	 * fork-join pool, or in the pool the terminal operation runs in, while the pages of each segment are
+	 * fetched one after another.
+	 *
+	 * <p>The source must honour the bounds of {@link SegmentChunkRequest}, as {@link NavigableChunkSource} does.
+	 * A source which ignores them would serve the same elements for every segment.</p>
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param segments the first requests of the segments, in the encounter order of the stream
+	 * @return stream of all elements
+	 * @see KeyRangeSplitter#segments(List, Integer, org.polycreo.chunkrequests.Direction)
+	 */
+	public static <T> Stream<T> streamAll(ChunkSource<T> source, List<SegmentChunkRequest> segments) {
+		requireSource(source);
+		if (segments == null) {
+			throw new IllegalArgumentException("segments must not be null!");
+		}
+		return StreamSupport.stream(new SegmentedSpliterator<>(source, new ArrayList<>(segments)), false);
+	}
+	
+	/**
+	 * Returns a {@link Publisher} of the chunks retrieved from the given source, starting with the given request
+	 * and following {@link Chunk#nextChunkable()}. A chunk is fetched on the given executor only when downstream
+	 * has requested it, and cancellation stops the pagination. Chunks without content are not published.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param executor executor to run fetches on
+	 * @return cold publisher of chunks
+	 */
+	public static <T> Publisher<Chunk<T>> publishChunks(ChunkSource<T> source, Chunkable firstChunkable,
+			Executor executor) {
+		return publishChunks(requireSource(source).async(executor), firstChunkable);
+	}
+	
+	/**
+	 * Returns a {@link Publisher} of the chunks retrieved from the given asynchronous source, starting with
+	 * the given request and following {@link Chunk#nextChunkable()}. A chunk is fetched only when downstream
+	 * has requested it, and cancellation stops the pagination. Chunks without content are not published.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @return cold publisher of chunks
+	 */
+	public static <T> Publisher<Chunk<T>> publishChunks(AsyncChunkSource<T> source, Chunkable firstChunkable) {
+		return new ChunkPublisher<T, Chunk<T>>(source, firstChunkable,
+				c -> c.hasContent() ? Collections.singletonList(c).iterator() : Collections.emptyIterator());
+	}
+	
+	/**
+	 * Returns a {@link Publisher} of all elements of the chunks retrieved from the given source, starting with
+	 * the given request and following {@link Chunk#nextChunkable()}. The next chunk is fetched on the given
+	 * executor only when the elements of the current one are drained and downstream has outstanding demand.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @param executor executor to run fetches on
+	 * @return cold publisher of elements
+	 */
+	public static <T> Publisher<T> publishAll(ChunkSource<T> source, Chunkable firstChunkable, Executor executor) {
+		return publishAll(requireSource(source).async(executor), firstChunkable);
+	}
+	
+	/**
+	 * Returns a {@link Publisher} of all elements of the chunks retrieved from the given asynchronous source,
+	 * starting with the given request and following {@link Chunk#nextChunkable()}. The next chunk is fetched
+	 * only when the elements of the current one are drained and downstream has outstanding demand.
+	 *
+	 * @param <T> element type of chunk
+	 * @param source source to retrieve chunks from
+	 * @param firstChunkable the request of the first chunk
+	 * @return cold publisher of elements
+	 */
+	public static <T> Publisher<T> publishAll(AsyncChunkSource<T> source, Chunkable firstChunkable) {
+		return new ChunkPublisher<T, T>(source, firstChunkable, Iterable::iterator);
+	}
+	
+	private static <T> ChunkSource<T> requireSource(ChunkSource<T> source) {
+		if (source == null) {
+			throw new IllegalArgumentException("source must not be null!");
+		}
+		return source;
+	}
+	
+	private static <T> Stream<T> stream(ChunkIterator<T> iterator) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+			.onClose(iterator::close);
+	}
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.EqualsAndHashCode;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * ID which consists of multiple components, in the order of significance.
+ */
+@EqualsAndHashCode
+public final class CompositeId implements Serializable {
+	
+	private static final long serialVersionUID = -2961371307306398211L;
+	
+	private final Serializable[] components;
+	
+	
+	/**
+	 * Creates a composite ID.
+	 *
+	 * @param components ID components, must not be {@literal null}
+	 */
+	public CompositeId(Serializable... components) {
+		if (components == null) {
+			throw new IllegalArgumentException("components must not be null!");
+		}
+		this.components = components.clone();
+	}
+	
+	/**
+	 * Returns the components of this ID.
+	 *
+	 * @return unmodifiable list of components
+	 */
+	@JsonValue
+	public List<Serializable> getComponents() {
+		return Collections.unmodifiableList(Arrays.asList(components));
+	}
+	
+	@Override
+	public String toString() {
+		return Arrays.toString(components);
+	}
+}
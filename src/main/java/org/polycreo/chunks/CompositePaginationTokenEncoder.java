@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.polycreo.chunkrequests.PaginationTokenEncoder;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * {@link PaginationTokenEncoder} which can attach the pagination tokens of several shards to a token.
+ *
+ * <p>A composite token consists of the token of the delegate encoder, which holds the first and the last keys
+ * of the merged chunk, and a token per shard, each of which is Base64url-encoded and separated by {@code '.'}.
+ * Tokens without shard tokens are those of the delegate encoder as is, so {@link #extractFirstKey(String)}
+ * and {@link #extractLastKey(String)} accept both, provided that tokens of the delegate encoder do not contain
+ * {@code '.'}, as Base64url-encoded ones do not.</p>
+ *
+ * @see MergingChunkSource
+ */
+public class CompositePaginationTokenEncoder implements PaginationTokenEncoder {
+	
+	private static final char SEPARATOR = '.';
+	
+	private final PaginationTokenEncoder delegate;
+	
+	
+	/**
+	 * Creates an encoder which delegates to {@link SimplePaginationTokenEncoder}.
+	 */
+	public CompositePaginationTokenEncoder() {
+		this(new SimplePaginationTokenEncoder());
+	}
+	
+	/**
+	 * Creates an encoder.
+	 *
+	 * @param delegate encoder of the keys of merged chunks and of shard tokens
+	 */
+	public CompositePaginationTokenEncoder(PaginationTokenEncoder delegate) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("delegate must not be null!");
+		}
+		this.delegate = delegate;
+	}
+	
+	/**
+	 * Returns the encoder of the keys of merged chunks and of shard tokens.
+	 *
+	 * @return the delegate encoder
+	 */
+	public PaginationTokenEncoder getDelegate() {
+		return delegate;
+	}
+	
+	@Override
+	public String encode(Object firstKey, Object lastKey) {
+		return delegate.encode(firstKey, lastKey);
+	}
+	
+	/**
+	 * Encodes a composite token.
+	 *
+	 * @param firstKey first key of the merged chunk, can be {@literal null}.
+	 * @param lastKey last key of the merged chunk, can be {@literal null}.
+	 * @param shardTokens tokens of shards, the elements of which can be {@literal null}.
+	 * @return composite token
+	 */
+	public String encode(Object firstKey, Object lastKey, List<String> shardTokens) {
+		StringBuilder sb = new StringBuilder(base64(delegate.encode(firstKey, lastKey)));
+		for (String shardToken : shardTokens) {
+			sb.append(SEPARATOR).append(base64(shardToken == null ? "" : shardToken));
+		}
+		return sb.toString();
+	}
+	
+	@Override
+	public Optional<String> extractFirstKey(String paginationToken) {
+		return delegate.extractFirstKey(mergedToken(paginationToken));
+	}
+	
+	@Override
+	public Optional<String> extractLastKey(String paginationToken) {
+		return delegate.extractLastKey(mergedToken(paginationToken));
+	}
+	
+	/**
+	 * Extracts the tokens of shards from the given token.
+	 *
+	 * @param paginationToken token
+	 * @return tokens of shards, the elements of which can be {@literal null}, or an empty list if the token
+	 *         is not a composite one
+	 */
+	public List<String> extractShardTokens(String paginationToken) {
+		if (paginationToken == null || paginationToken.indexOf(SEPARATOR) < 0) {
+			return Collections.emptyList();
+		}
+		List<String> shardTokens = new ArrayList<>();
+		int from = paginationToken.indexOf(SEPARATOR) + 1;
+		while (from <= paginationToken.length()) {
+			int to = paginationToken.indexOf(SEPARATOR, from);
+			if (to < 0) {
+				to = paginationToken.length();
+			}
+			String shardToken = unbase64(paginationToken.substring(from, to));
+			shardTokens.add(shardToken.isEmpty() ? null : shardToken);
+			from = to + 1;
+		}
+		return shardTokens;
+	}
+	
+	private static String mergedToken(String paginationToken) {
+		if (paginationToken == null) {
+			return null;
+		}
+		int separator = paginationToken.indexOf(SEPARATOR);
+		return separator < 0 ? paginationToken : unbase64(paginationToken.substring(0, separator));
+	}
+	
+	private static String base64(String s) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(s.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static String unbase64(String s) {
+		return new String(Base64.getUrlDecoder().decode(s), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * {@link ChunkSource} which can tell that a chunk has not been modified since a client retrieved it.
+ *
+ * @param <T> type of element
+ * @see Chunks#etag(Chunk)
+ */
+public interface ConditionalChunkSource<T> extends ChunkSource<T> {
+	
+	/**
+	 * Returns a {@link Chunk} meeting the paging restriction provided in the {@link Chunkable} object, unless its
+	 * entity tag matches the given one.
+	 *
+	 * <p>The default implementation fetches the chunk and compares its entity tag, which saves the transfer of
+	 * unmodified chunks. Implementations which can tell the entity tag without materializing the chunk, such as
+	 * caches, should override it.</p>
+	 *
+	 * @param chunkable pagination information
+	 * @param etag entity tag of the chunk the client holds, can be {@literal null}.
+	 * @return a chunk of elements, or {@literal null} if it has not been modified
+	 */
+	default Chunk<T> findAllIfNoneMatch(Chunkable chunkable, String etag) {
+		Chunk<T> chunk = findAll(chunkable);
+		if (etag != null && etag.equals(Chunks.etag(chunk))) {
+			return null;
+		}
+		return chunk;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codec of records which occupy a fixed number of bytes in a {@link ByteBuffer}.
+ *
+ * <p>Implementations must use absolute get and put methods only, so that a buffer can be read by
+ * several threads at once.</p>
+ *
+ * @param <T> type of record
+ * @see BufferChunk
+ */
+public interface FixedWidthCodec<T> {
+	
+	/**
+	 * Returns the number of bytes of a record.
+	 *
+	 * @return the number of bytes of a record
+	 */
+	int getRecordSize();
+	
+	/**
+	 * Decodes a record at the given offset of the buffer.
+	 *
+	 * @param buffer buffer to read from
+	 * @param offset offset of the record
+	 * @return decoded record
+	 */
+	T decode(ByteBuffer buffer, int offset);
+	
+	/**
+	 * Encodes a record at the given offset of the buffer.
+	 *
+	 * @param record record to encode
+	 * @param buffer buffer to write to
+	 * @param offset offset of the record
+	 */
+	void encode(T record, ByteBuffer buffer, int offset);
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.polycreo.id.DefaultIdExtractor;
+
+/**
+ * Function to extract ID from entity, which resolves the ID accessor once per entity class.
+ *
+ * <p>The accessor of each class is resolved on first use and cached. It is looked up in the following order:</p>
+ * <ol>
+ *   <li>the function registered by {@link #register(Class, Function)} or
+ *   {@link #registerComposite(Class, Function[])} for the class</li>
+ *   <li>a public no-arg {@code getId()} method, or a record-style {@code id()} method, bound to
+ *   a {@link Function} generated by {@link LambdaMetafactory} so that JIT can inline the call</li>
+ *   <li>the fallback function, {@link DefaultIdExtractor} by default</li>
+ * </ol>
+ *
+ * <p>Accessors of classes which are not visible from the class loader of this library, such as entities of
+ * web applications or plugins loaded by a child class loader, are invoked through a {@link MethodHandle}
+ * instead of a generated class. Registrations may be made at any time; they take effect for the class and its
+ * subclasses, including those which have been resolved already.</p>
+ */
+public class IdExtractorRegistry implements Function<Object, Serializable> {
+	
+	private static final String[] ACCESSOR_NAMES = {
+		"getId",
+		"id"
+	};
+	
+	private final Map<Class<?>, Function<Object, ? extends Serializable>> registrations = new ConcurrentHashMap<>();
+	
+	private final Function<? super Object, ? extends Serializable> fallback;
+	
+	/**
+	 * Generation of registrations, which invalidates accessors resolved before the latest registration.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+	
+	private final ClassValue<Resolved> accessors = new ClassValue<Resolved>() {
+		
+		@Override
+		protected Resolved computeValue(Class<?> type) {
+			// read the generation first, so that a registration during resolution invalidates the result
+			long resolvedGeneration = generation.get();
+			return new Resolved(resolvedGeneration, resolve(type));
+		}
+	};
+	
+	
+	/**
+	 * Creates a registry which falls back to {@link DefaultIdExtractor}.
+	 */
+	public IdExtractorRegistry() {
+		this(new DefaultIdExtractor());
+	}
+	
+	/**
+	 * Creates a registry with the given fallback.
+	 *
+	 * @param fallback function to extract ID from entities whose ID accessor cannot be resolved
+	 */
+	public IdExtractorRegistry(Function<? super Object, ? extends Serializable> fallback) {
+		if (fallback == null) {
+			throw new IllegalArgumentException("fallback must not be null!");
+		}
+		this.fallback = fallback;
+	}
+	
+	@Override
+	public Serializable apply(Object entity) {
+		if (entity == null) {
+			throw new IllegalArgumentException("entity must not be null!");
+		}
+		Class<?> type = entity.getClass();
+		Resolved resolved = accessors.get(type);
+		if (resolved.generation != generation.get()) {
+			accessors.remove(type);
+			resolved = accessors.get(type);
+		}
+		return resolved.function.apply(entity);
+	}
+	
+	/**
+	 * Registers the function to extract ID from entities of the given class.
+	 *
+	 * @param <E> entity type
+	 * @param type entity class
+	 * @param idExtractor function to extract ID
+	 * @return this registry
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> IdExtractorRegistry register(Class<E> type, Function<? super E, ? extends Serializable> idExtractor) {
+		if (type == null) {
+			throw new IllegalArgumentException("type must not be null!");
+		}
+		if (idExtractor == null) {
+			throw new IllegalArgumentException("idExtractor must not be null!");
+		}
+		registrations.put(type, (Function<Object, ? extends Serializable>) idExtractor);
+		generation.incrementAndGet();
+		return this;
+	}
+	
+	/**
+	 * Registers the functions to extract the components of composite ID from entities of the given class.
+	 * The extracted ID is a {@link CompositeId} of the components in the given order.
+	 *
+	 * @param <E> entity type
+	 * @param type entity class
+	 * @param components functions to extract ID components
+	 * @return this registry
+	 */
+	@SafeVarargs
+	public final <E> IdExtractorRegistry registerComposite(Class<E> type,
+			Function<? super E, ? extends Serializable>... components) {
+		if (components == null || components.length == 0) {
+			throw new IllegalArgumentException("components must not be empty!");
+		}
+		Function<? super E, ? extends Serializable>[] copy = Arrays.copyOf(components, components.length);
+		return register(type, entity -> {
+			Serializable[] values = new Serializable[copy.length];
+			for (int i = 0; i < copy.length; i++) {
+				values[i] = copy[i].apply(entity);
+			}
+			return new CompositeId(values);
+		});
+	}
+	
+	private Function<Object, ? extends Serializable> resolve(Class<?> type) {
+		for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+			Function<Object, ? extends Serializable> registered = registrations.get(c);
+			if (registered != null) {
+				return registered;
+			}
+		}
+		for (String name : ACCESSOR_NAMES) {
+			Method accessor = findAccessor(type, name);
+			if (accessor != null) {
+				Function<Object, ? extends Serializable> compiled = compile(accessor);
+				if (compiled != null) {
+					return compiled;
+				}
+			}
+		}
+		return fallback::apply;
+	}
+	
+	private static Method findAccessor(Class<?> type, String name) {
+		try {
+			Method method = type.getMethod(name);
+			Class<?> returnType = method.getReturnType();
+			if (Modifier.isStatic(method.getModifiers()) || returnType == void.class
+					|| (returnType.isPrimitive() == false && Serializable.class.isAssignableFrom(returnType) == false)) {
+				return null;
+			}
+			return method;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Binds the given accessor to a {@link Function} generated by {@link LambdaMetafactory}, or to a function
+	 * which invokes its {@link MethodHandle} if the generated class could not link the declaring class.
+	 *
+	 * @param accessor ID accessor
+	 * @return generated function, or {@literal null} if the accessor is not accessible from this class
+	 */
+	@SuppressWarnings("unchecked")
+	private static Function<Object, ? extends Serializable> compile(Method accessor) {
+		Class<?> declaringClass = accessor.getDeclaringClass();
+		if (Modifier.isPublic(declaringClass.getModifiers()) == false) {
+			return null;
+		}
+		MethodHandle handle;
+		try {
+			handle = MethodHandles.lookup().unreflect(accessor);
+		} catch (IllegalAccessException e) {
+			return null;
+		}
+		if (isVisible(declaringClass) == false || isVisible(accessor.getReturnType()) == false) {
+			// the generated class would be defined by the loader of this class, and could not link the entity class
+			MethodHandle generic = handle.asType(MethodType.methodType(Serializable.class, Object.class));
+			return entity -> invoke(generic, entity);
+		}
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodType instantiatedType = MethodType.methodType(box(accessor.getReturnType()), declaringClass);
+			CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+					MethodType.methodType(Function.class), instantiatedType.generic(), handle, instantiatedType);
+			return (Function<Object, ? extends Serializable>) site.getTarget().invoke();
+		} catch (Throwable e) { // NOPMD - LambdaMetafactory may fail with any linkage error
+			return null;
+		}
+	}
+	
+	private static boolean isVisible(Class<?> type) {
+		if (type.isPrimitive()) {
+			return true;
+		}
+		try {
+			return Class.forName(type.getName(), false, IdExtractorRegistry.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+	
+	private static Serializable invoke(MethodHandle accessor, Object entity) {
+		try {
+			return (Serializable) accessor.invokeExact(entity);
+		} catch (RuntimeException | Error e) { // NOPMD - rethrow as is
+			throw e;
+		} catch (Throwable e) { // NOPMD - accessor may throw checked exceptions undeclared
+			throw new UndeclaredThrowableException(e);
+		}
+	}
+	
+	private static Class<?> box(Class<?> type) {
+		return MethodType.methodType(type).wrap().returnType();
+	}
+	
+	
+	/**
+	 * Accessor resolved for a class, with the generation of registrations it was resolved at.
+	 */
+	private static class Resolved {
+		
+		private final long generation;
+		
+		private final Function<Object, ? extends Serializable> function;
+		
+		
+		Resolved(long generation, Function<Object, ? extends Serializable> function) {
+			this.generation = generation;
+			this.function = function;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Lazily computed read-only list of the results of a function of the index, over an index range from {@code 0}.
+ *
+ * <p>As {@link MappedList} does for a source list, elements are computed on first access and memoized, so the
+ * function is applied at most once per index (unless the same index is accessed concurrently for the first
+ * time). This lets views of primitive arrays be mapped without boxing their values.</p>
+ *
+ * @param <S> element type
+ */
+final class IndexMappedList<S> extends AbstractList<S> implements RandomAccess {
+	
+	private static final Object NULL = new Object();
+	
+	private final IntFunction<? extends S> mapper;
+	
+	private final AtomicReferenceArray<Object> results;
+	
+	
+	IndexMappedList(int size, IntFunction<? extends S> mapper) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper must not be null!");
+		}
+		this.mapper = mapper;
+		this.results = new AtomicReferenceArray<>(size);
+	}
+	
+	@Override
+	public S get(int index) {
+		Object result = results.get(index);
+		if (result == null) {
+			S mapped = mapper.apply(index);
+			if (results.compareAndSet(index, null, mapped == null ? NULL : mapped)) {
+				return mapped;
+			}
+			// another thread has mapped the element concurrently, prefer the published result
+			result = results.get(index);
+		}
+		return unmask(result);
+	}
+	
+	@Override
+	public int size() {
+		return results.length();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private S unmask(Object result) {
+		return result == NULL ? null : (S) result;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Unmodifiable list view of a {@code int[]}, which boxes elements only when they are accessed as objects.
+ */
+final class IntArrayView extends PrimitiveArrayView<Integer> {
+	
+	private final int[] array;
+	
+	
+	IntArrayView(int[] array) {
+		super(checkNotNull(array).length);
+		this.array = array;
+	}
+	
+	private static int[] checkNotNull(int[] array) {
+		if (array == null) {
+			throw new IllegalArgumentException("array must not be null!");
+		}
+		return array;
+	}
+	
+	int getInt(int index) {
+		return array[index];
+	}
+	
+	int[] toIntArray() {
+		return array.clone();
+	}
+	
+	IntStream intStream() {
+		return Arrays.stream(array);
+	}
+	
+	void forEachInt(IntConsumer action) {
+		for (int value : array) {
+			action.accept(value);
+		}
+	}
+	
+	PrimitiveIterator.OfInt intIterator() {
+		return new IntCursor();
+	}
+	
+	@Override
+	public Integer get(int index) {
+		return array[index];
+	}
+	
+	
+	private final class IntCursor extends Cursor implements PrimitiveIterator.OfInt {
+		
+		@Override
+		public int nextInt() {
+			return array[nextIndex()];
+		}
+	}
+}
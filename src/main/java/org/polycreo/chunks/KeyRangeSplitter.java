@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import lombok.experimental.UtilityClass;
+
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Utilities to split a key space into segments to be scanned in parallel.
+ *
+ * @see SegmentChunkRequest
+ */
+@UtilityClass
+public class KeyRangeSplitter {
+	
+	/**
+	 * Returns split points which divide the given sample of keys into the given number of segments of about
+	 * the same number of keys. Fewer split points are returned if the sample has fewer distinct keys.
+	 *
+	 * @param <K> type of key
+	 * @param samples sample of keys, in any order
+	 * @param comparator comparator to order keys
+	 * @param segments number of segments
+	 * @return ascending and distinct split points, at most {@code segments - 1}
+	 */
+	public static <K> List<K> splitPoints(Collection<? extends K> samples, Comparator<? super K> comparator,
+			int segments) {
+		if (segments < 1) {
+			throw new IllegalArgumentException("segments must be positive!");
+		}
+		List<K> sorted = new ArrayList<>(samples);
+		sorted.sort(comparator);
+		List<K> points = new ArrayList<>(segments - 1);
+		for (int i = 1; i < segments && sorted.isEmpty() == false; i++) {
+			K point = sorted.get((int) ((long) sorted.size() * i / segments));
+			// the first key would make an empty segment, and duplicates would too
+			boolean distinct = points.isEmpty()
+					? comparator.compare(point, sorted.get(0)) > 0
+					: comparator.compare(point, points.get(points.size() - 1)) > 0;
+			if (distinct) {
+				points.add(point);
+			}
+		}
+		return points;
+	}
+	
+	/**
+	 * Returns split points which divide the keys from {@code min} inclusive to {@code max} exclusive, supposed
+	 * to be distributed uniformly, into the given number of segments.
+	 *
+	 * @param min lowest key inclusive
+	 * @param max highest key exclusive
+	 * @param segments number of segments
+	 * @return ascending and distinct split points, at most {@code segments - 1}
+	 */
+	public static List<Long> uniformSplitPoints(long min, long max, int segments) {
+		if (segments < 1) {
+			throw new IllegalArgumentException("segments must be positive!");
+		}
+		if (min >= max) {
+			return Collections.emptyList();
+		}
+		List<Long> points = new ArrayList<>(segments - 1);
+		double width = ((double) max - min) / segments;
+		for (int i = 1; i < segments; i++) {
+			long point = min + (long) (width * i);
+			if (point > min && (points.isEmpty() || point > points.get(points.size() - 1)) && point < max) {
+				points.add(point);
+			}
+		}
+		return points;
+	}
+	
+	/**
+	 * Returns the first requests of the segments which the given split points divide the key space into.
+	 * The segments are in the order of the direction, so that concatenating them gives the order of the
+	 * whole key space.
+	 *
+	 * @param splitPoints ascending split points, which are converted to bounds by {@link String#valueOf(Object)}
+	 * @param maxPageSize page size of the requests
+	 * @param direction direction of the requests
+	 * @return requests of the segments, one more than the split points
+	 */
+	public static List<SegmentChunkRequest> segments(List<?> splitPoints, Integer maxPageSize, Direction direction) {
+		List<SegmentChunkRequest> segments = new ArrayList<>(splitPoints.size() + 1);
+		String lowerBound = null;
+		for (int i = 0; i <= splitPoints.size(); i++) {
+			String upperBound = i < splitPoints.size() ? String.valueOf(splitPoints.get(i)) : null;
+			segments.add(new SegmentChunkRequest(null, null, maxPageSize, direction, i, lowerBound, upperBound));
+			lowerBound = upperBound;
+		}
+		if (direction == Direction.DESC) {
+			Collections.reverse(segments);
+		}
+		return segments;
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.PaginationTokenEncoder;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Tells which chunks of a keyset-paginated source may change by a write of a key.
+ *
+ * <p>A chunk covers the keys after the resume key of its request in the fetch order, up to its boundary
+ * element. A write of a key changes the chunk if the key is after the resume key, and either it is not
+ * after the boundary or the chunk is the last one in the fetch order, whose range is open-ended.</p>
+ *
+ * @param <K> type of key
+ * @param <T> type of element
+ * @see CachingChunkSource#invalidateIf(BiPredicate)
+ */
+public class KeysetInvalidator<K extends Serializable, T> {
+	
+	private final Function<? super T, ? extends K> keyExtractor;
+	
+	private final Function<? super String, ? extends K> keyParser;
+	
+	private final Comparator<? super K> comparator;
+	
+	private final PaginationTokenEncoder encoder;
+	
+	
+	/**
+	 * Creates an invalidator for keys in their natural ordering and tokens encoded by
+	 * {@link SimplePaginationTokenEncoder}.
+	 *
+	 * @param keyExtractor function to extract key from element
+	 * @param keyParser function to parse key from its string form in a pagination token
+	 */
+	public KeysetInvalidator(Function<? super T, ? extends K> keyExtractor,
+			Function<? super String, ? extends K> keyParser) {
+		this(keyExtractor, keyParser, null, new SimplePaginationTokenEncoder());
+	}
+	
+	/**
+	 * Creates an invalidator.
+	 *
+	 * @param keyExtractor function to extract key from element
+	 * @param keyParser function to parse key from its string form in a pagination token
+	 * @param comparator comparator to order keys, or {@literal null} for the natural ordering
+	 * @param encoder encoder of pagination tokens
+	 */
+	@SuppressWarnings("unchecked")
+	public KeysetInvalidator(Function<? super T, ? extends K> keyExtractor,
+			Function<? super String, ? extends K> keyParser, Comparator<? super K> comparator,
+			PaginationTokenEncoder encoder) {
+		if (keyExtractor == null) {
+			throw new IllegalArgumentException("keyExtractor must not be null!");
+		}
+		if (keyParser == null) {
+			throw new IllegalArgumentException("keyParser must not be null!");
+		}
+		if (encoder == null) {
+			throw new IllegalArgumentException("encoder must not be null!");
+		}
+		this.keyExtractor = keyExtractor;
+		this.keyParser = keyParser;
+		this.comparator = comparator == null ? (Comparator<? super K>) Comparator.naturalOrder() : comparator;
+		this.encoder = encoder;
+	}
+	
+	/**
+	 * Returns a predicate which tells whether a chunk fetched by a request may change by a write of the given key.
+	 *
+	 * @param key written key
+	 * @return predicate of request and chunk
+	 */
+	public BiPredicate<Chunkable, Chunk<? extends T>> affectedBy(K key) {
+		if (key == null) {
+			throw new IllegalArgumentException("key must not be null!");
+		}
+		return (chunkable, chunk) -> isAffected(key, chunkable, chunk);
+	}
+	
+	private boolean isAffected(K key, Chunkable chunkable, Chunk<? extends T> chunk) {
+		boolean backward = chunkable.getPaginationRelation() == PaginationRelation.PREV;
+		Comparator<? super K> fetchOrder = (chunkable.getDirection() == Direction.DESC) == backward
+				? comparator : comparator.reversed();
+		
+		String token = chunkable.getPaginationToken();
+		if (token != null) {
+			String resume = (backward ? encoder.extractFirstKey(token) : encoder.extractLastKey(token)).orElse(null);
+			if (resume != null && fetchOrder.compare(key, keyParser.apply(resume)) <= 0) {
+				return false;
+			}
+		}
+		List<? extends T> content = chunk.getContent();
+		if (content.isEmpty() || chunk.isLast()) {
+			return true;
+		}
+		T boundary = content.get(backward ? 0 : content.size() - 1);
+		return fetchOrder.compare(key, keyExtractor.apply(boundary)) <= 0;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Unmodifiable list view of a {@code long[]}, which boxes elements only when they are accessed as objects.
+ */
+final class LongArrayView extends PrimitiveArrayView<Long> {
+	
+	private final long[] array;
+	
+	
+	LongArrayView(long[] array) {
+		super(checkNotNull(array).length);
+		this.array = array;
+	}
+	
+	private static long[] checkNotNull(long[] array) {
+		if (array == null) {
+			throw new IllegalArgumentException("array must not be null!");
+		}
+		return array;
+	}
+	
+	long getLong(int index) {
+		return array[index];
+	}
+	
+	long[] toLongArray() {
+		return array.clone();
+	}
+	
+	LongStream longStream() {
+		return Arrays.stream(array);
+	}
+	
+	void forEachLong(LongConsumer action) {
+		for (long value : array) {
+			action.accept(value);
+		}
+	}
+	
+	PrimitiveIterator.OfLong longIterator() {
+		return new LongCursor();
+	}
+	
+	@Override
+	public Long get(int index) {
+		return array[index];
+	}
+	
+	
+	private final class LongCursor extends Cursor implements PrimitiveIterator.OfLong {
+		
+		@Override
+		public long nextLong() {
+			return array[nextIndex()];
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * {@link Chunk} of {@code long} values, such as IDs, backed by a {@code long[]}.
+ *
+ * <p>The values are stored unboxed, and are boxed only when they are accessed through the {@link Chunk}
+ * interface. Use {@link #getLong(int)}, {@link #longStream()}, {@link #longIterator()} or
+ * {@link #forEachLong(LongConsumer)} to read them without boxing, and {@link #mapToObj(LongFunction)} to convert them
+ * to objects.</p>
+ */
+public class LongChunk extends PrimitiveArrayChunk<Long, LongArrayView> {
+	
+	LongChunk(LongArrayView values, Supplier<String> paginationToken, Chunkable chunkable, Boolean last) {
+		super(values, paginationToken, chunkable, last);
+	}
+	
+	/**
+	 * Creates a new {@link LongChunk} which adopts the given array without copying it.
+	 * The caller must not modify the array afterwards.
+	 *
+	 * @param values values, must not be {@literal null}.
+	 * @param paginationToken token, can be {@literal null}.
+	 * @param chunkable can be {@literal null}.
+	 * @return chunk backed by the given array
+	 */
+	public static LongChunk wrap(long[] values, String paginationToken, Chunkable chunkable) {
+		return new LongChunk(new LongArrayView(values), () -> paginationToken, chunkable, null);
+	}
+	
+	/**
+	 * Returns the value at the given index.
+	 *
+	 * @param index index of the value
+	 * @return the value
+	 * @throws IndexOutOfBoundsException if the index is out of range
+	 */
+	public long getLong(int index) {
+		return values.getLong(index);
+	}
+	
+	/**
+	 * Returns a copy of the values.
+	 *
+	 * @return array of the values
+	 */
+	public long[] toLongArray() {
+		return values.toLongArray();
+	}
+	
+	/**
+	 * Returns a sequential stream of the values.
+	 *
+	 * @return stream of the values
+	 */
+	public LongStream longStream() {
+		return values.longStream();
+	}
+	
+	/**
+	 * Returns an iterator over the values.
+	 *
+	 * @return iterator over the values
+	 */
+	public PrimitiveIterator.OfLong longIterator() {
+		return values.longIterator();
+	}
+	
+	/**
+	 * Performs the given action for each value.
+	 *
+	 * @param action action to be performed for each value
+	 */
+	public void forEachLong(LongConsumer action) {
+		values.forEachLong(action);
+	}
+	
+	/**
+	 * Returns a {@link Chunk} of the values converted by the given function, which shares the pagination token,
+	 * {@link Chunkable} and navigation state of this chunk.
+	 *
+	 * @param <S> element type of the new chunk
+	 * @param mapper function to convert a value, must not be {@literal null}.
+	 * @return chunk of the converted values
+	 */
+	public <S> Chunk<S> mapToObj(LongFunction<? extends S> mapper) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper must not be null!");
+		}
+		return mapIndexed(index -> mapper.apply(values.getLong(index)));
+	}
+}
@@ -0,0 +1,600 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.PaginationTokenEncoder;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * {@link ChunkSource} which pages through an immutable file of records sorted by key in ascending order.
+ *
+ * <p>The file is a sequence of records, each of which is a big-endian {@code int} length followed by
+ * that many bytes of payload decoded by a {@link RecordCodec}. It is mapped into memory by
+ * {@link FileChannel#map(MapMode, long, long)} in segments of up to 2 GiB, so it does not need to fit
+ * in the heap.</p>
+ *
+ * <p>Opening the source only opens the file. On the first fetch (or call to {@link #size()}), the record
+ * headers are scanned once to build a sparse index which holds the key of every {@code indexInterval}-th
+ * record. A fetch locates the resume key of the pagination token by binary search on the index, and decodes
+ * only the records of the requested page and of the index block which contains the resume position. Each
+ * fetch looks one record ahead, so chunks report definitively whether more records follow.</p>
+ *
+ * <p>The order of keys is verified between index entries when the index is built, and between adjacent
+ * records as they are decoded by fetches. A malformed or unsorted file is reported by
+ * {@link UncheckedIOException} from the fetch which encounters it.</p>
+ *
+ * <p>This class is thread-safe. The source should be closed to release the file and unmap its segments;
+ * fetches after closing throw {@link IllegalStateException}.</p>
+ *
+ * @param <K> type of key
+ * @param <T> type of record
+ */
+public class MappedFileChunkSource<K extends Serializable, T> implements ChunkSource<T>, Closeable {
+	
+	/**
+	 * Default number of records per index entry.
+	 */
+	public static final int DEFAULT_INDEX_INTERVAL = 64;
+	
+	private static final int HEADER_SIZE = Integer.BYTES;
+	
+	private static final int MAX_INITIAL_CAPACITY = 1024;
+	
+	private static final Consumer<ByteBuffer> UNMAPPER = unmapper();
+	
+	private final FileChannel channel;
+	
+	private final RecordCodec<? extends T> codec;
+	
+	private final Function<? super T, ? extends K> keyExtractor;
+	
+	private final Function<? super String, ? extends K> keyParser;
+	
+	private final Comparator<? super K> comparator;
+	
+	private final PaginationTokenEncoder encoder;
+	
+	private final int indexInterval;
+	
+	private final int maxSegmentSize;
+	
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	// guarded by lock
+	private boolean closed;
+	
+	// lazily built; safely published without volatile since all fields of Index are final
+	private Index<K> index;
+	
+	
+	/**
+	 * Opens the given file, ordering keys by their natural ordering and encoding tokens by
+	 * {@link SimplePaginationTokenEncoder}.
+	 *
+	 * @param file file of records sorted by key
+	 * @param codec decoder of records
+	 * @param keyExtractor function to extract key from record
+	 * @param keyParser function to parse key from its string form in a pagination token
+	 * @throws IOException if an I/O error occurs
+	 */
+	public MappedFileChunkSource(Path file, RecordCodec<? extends T> codec,
+			Function<? super T, ? extends K> keyExtractor, Function<? super String, ? extends K> keyParser)
+			throws IOException {
+		this(file, codec, keyExtractor, keyParser, null, new SimplePaginationTokenEncoder());
+	}
+	
+	/**
+	 * Opens the given file.
+	 *
+	 * @param file file of records sorted by key
+	 * @param codec decoder of records
+	 * @param keyExtractor function to extract key from record
+	 * @param keyParser function to parse key from its string form in a pagination token
+	 * @param comparator comparator which the file is sorted by, or {@literal null} for the natural ordering
+	 * @param encoder encoder of pagination tokens
+	 * @throws IOException if an I/O error occurs
+	 */
+	public MappedFileChunkSource(Path file, RecordCodec<? extends T> codec,
+			Function<? super T, ? extends K> keyExtractor, Function<? super String, ? extends K> keyParser,
+			Comparator<? super K> comparator, PaginationTokenEncoder encoder) throws IOException {
+		this(file, codec, keyExtractor, keyParser, comparator, encoder, DEFAULT_INDEX_INTERVAL, Integer.MAX_VALUE);
+	}
+	
+	MappedFileChunkSource(Path file, RecordCodec<? extends T> codec,
+			Function<? super T, ? extends K> keyExtractor, Function<? super String, ? extends K> keyParser,
+			Comparator<? super K> comparator, PaginationTokenEncoder encoder, int indexInterval, int maxSegmentSize)
+			throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("file must not be null!");
+		}
+		if (codec == null) {
+			throw new IllegalArgumentException("codec must not be null!");
+		}
+		if (keyExtractor == null) {
+			throw new IllegalArgumentException("keyExtractor must not be null!");
+		}
+		if (keyParser == null) {
+			throw new IllegalArgumentException("keyParser must not be null!");
+		}
+		if (encoder == null) {
+			throw new IllegalArgumentException("encoder must not be null!");
+		}
+		if (indexInterval < 1) {
+			throw new IllegalArgumentException("indexInterval must be positive!");
+		}
+		this.codec = codec;
+		this.keyExtractor = keyExtractor;
+		this.keyParser = keyParser;
+		this.comparator = comparator == null ? naturalOrder() : comparator;
+		this.encoder = encoder;
+		this.indexInterval = indexInterval;
+		this.maxSegmentSize = maxSegmentSize;
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <K> Comparator<? super K> naturalOrder() {
+		return (Comparator<? super K>) Comparator.naturalOrder();
+	}
+	
+	/**
+	 * Returns the number of records in the file.
+	 *
+	 * @return the number of records
+	 * @throws IllegalStateException if this source has been closed
+	 * @throws UncheckedIOException if an I/O error occurs, or the file is malformed
+	 */
+	public long size() {
+		lock.readLock().lock();
+		try {
+			return index().recordCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	@Override
+	public Chunk<T> findAll(Chunkable chunkable) {
+		lock.readLock().lock();
+		try {
+			return fetch(index(), chunkable);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Closes the file and unmaps its segments.
+	 *
+	 * <p>Unmapping is best effort, since the platform provides no supported way to do so. If it is not
+	 * available, the segments are unmapped when they are garbage collected.</p>
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (index != null) {
+				index.segments.forEach(UNMAPPER);
+				index = null;
+			}
+			channel.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	private Chunk<T> fetch(Index<K> index, Chunkable chunkable) {
+		PaginationRelation relation = chunkable.getPaginationRelation();
+		boolean backward = relation == PaginationRelation.PREV;
+		
+		String token = chunkable.getPaginationToken();
+		K key = null;
+		if (token != null) {
+			Object event = ChunkEvents.beginToken();
+			String encoded = (backward ? encoder.extractFirstKey(token) : encoder.extractLastKey(token)).orElse(null);
+			ChunkEvents.commitToken(event, false, token);
+			if (encoded != null) {
+				key = keyParser.apply(encoded);
+			}
+		}
+		
+		// scan in the order of the requested direction, or against it to go back
+		Iterator<T> iterator = (chunkable.getDirection() == Direction.DESC) == backward
+				? new AscendingCursor(index, key) : new DescendingCursor(index, key);
+		
+		Integer maxPageSize = chunkable.getMaxPageSize();
+		int size = maxPageSize == null ? Chunks.DEFAULT_MAX_PAGE_SIZE : maxPageSize;
+		List<T> fetched = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+		while (fetched.size() < size && iterator.hasNext()) {
+			fetched.add(iterator.next());
+		}
+		boolean last = iterator.hasNext() == false;
+		
+		if (fetched.isEmpty()) {
+			return ChunkImpl.wrap(fetched, null, chunkable, last);
+		}
+		List<T> content = backward ? Chunks.reversed(fetched) : fetched;
+		return ChunkImpl.wrapDeferred(content, () -> computeToken(content, token != null), chunkable, last);
+	}
+	
+	private String computeToken(List<T> content, boolean includeFirstKey) {
+		K firstKey = includeFirstKey ? keyExtractor.apply(content.get(0)) : null;
+		K lastKey = keyExtractor.apply(content.get(content.size() - 1));
+		return encoder.encode(firstKey, lastKey);
+	}
+	
+	/**
+	 * Returns the index, building it on first use. Must be called while holding the read lock.
+	 */
+	private Index<K> index() {
+		if (closed) {
+			throw new IllegalStateException("Source has been closed");
+		}
+		Index<K> result = index;
+		if (result == null) {
+			synchronized (this) {
+				result = index;
+				if (result == null) {
+					try {
+						result = buildIndex();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					index = result;
+				}
+			}
+		}
+		return result;
+	}
+	
+	private Index<K> buildIndex() throws IOException {
+		List<ByteBuffer> segments = new ArrayList<>();
+		List<Block<K>> blocks = new ArrayList<>();
+		long recordCount = 0;
+		long fileSize = channel.size();
+		long position = 0;
+		while (position < fileSize) {
+			MappedByteBuffer segment =
+					channel.map(MapMode.READ_ONLY, position, Math.min(fileSize - position, maxSegmentSize));
+			int segmentIndex = segments.size();
+			segments.add(segment);
+			
+			// blocks never span segments, so records of a block are addressed by one buffer
+			int offset = 0;
+			int blockOffset = 0;
+			int count = 0;
+			K firstKey = null;
+			while ((long) offset + HEADER_SIZE <= segment.limit()) {
+				int length = segment.getInt(offset);
+				if (length < 0) {
+					throw new IOException("Malformed record length " + length + " at " + (position + offset));
+				}
+				if ((long) offset + HEADER_SIZE + length > segment.limit()) {
+					break;
+				}
+				if (count == indexInterval) {
+					blocks.add(new Block<>(segmentIndex, blockOffset, firstKey, count));
+					count = 0;
+				}
+				if (count == 0) {
+					K key = keyExtractor.apply(decode(segment, offset));
+					K previous = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1).firstKey;
+					if (previous != null && compare(previous, key) >= 0) {
+						throw new IOException("Records are not sorted by key at " + (position + offset));
+					}
+					blockOffset = offset;
+					firstKey = key;
+				}
+				count++;
+				recordCount++;
+				offset += HEADER_SIZE + length;
+			}
+			if (offset == 0) {
+				throw new IOException("Truncated or oversized record at " + position);
+			}
+			blocks.add(new Block<>(segmentIndex, blockOffset, firstKey, count));
+			position += offset;
+		}
+		return new Index<>(segments, blocks, recordCount);
+	}
+	
+	private T decode(ByteBuffer segment, int offset) {
+		ByteBuffer payload = segment.duplicate();
+		payload.limit(offset + HEADER_SIZE + segment.getInt(offset)).position(offset + HEADER_SIZE);
+		return codec.decode(payload.slice().asReadOnlyBuffer());
+	}
+	
+	private int compare(K left, K right) {
+		return comparator.compare(left, right);
+	}
+	
+	/**
+	 * Verifies that a key read after another one within the given block is greater than the other.
+	 */
+	private K checkOrder(K previous, K key, Block<K> block) {
+		if (previous != null && compare(previous, key) >= 0) {
+			throw new UncheckedIOException(new IOException(
+					"Records are not sorted by key in block at " + block.offset + " of segment " + block.segment));
+		}
+		return key;
+	}
+	
+	/**
+	 * Returns a function which releases the mapping of the given buffer, or does nothing if the platform does not
+	 * allow it.
+	 */
+	private static Consumer<ByteBuffer> unmapper() {
+		try {
+			// Java 9 and later
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			Object unsafe = theUnsafe.get(null);
+			return buffer -> invokeQuietly(invokeCleaner, unsafe, buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) { // NOPMD - try the Java 8 way
+			return legacyUnmapper();
+		}
+	}
+	
+	private static Consumer<ByteBuffer> legacyUnmapper() {
+		try {
+			Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+			Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			return buffer -> {
+				Object c = invokeQuietly(cleaner, buffer);
+				if (c != null) {
+					invokeQuietly(clean, c);
+				}
+			};
+		} catch (ReflectiveOperationException | RuntimeException e) { // NOPMD - left to garbage collection
+			return buffer -> {
+				// unmapped when collected
+			};
+		}
+	}
+	
+	private static Object invokeQuietly(Method method, Object target, Object... args) {
+		try {
+			return method.invoke(target, args);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+	
+	
+	private static final class Index<K> {
+		
+		private final List<ByteBuffer> segments;
+		
+		private final List<Block<K>> blocks;
+		
+		private final long recordCount;
+		
+		
+		Index(List<ByteBuffer> segments, List<Block<K>> blocks, long recordCount) {
+			this.segments = segments;
+			this.blocks = blocks;
+			this.recordCount = recordCount;
+		}
+		
+		/**
+		 * Returns the index of the last block whose first key is less than (or equal to, if inclusive) the
+		 * given key.
+		 */
+		int floorBlock(K key, boolean inclusive, Comparator<? super K> comparator) {
+			int low = 0;
+			int high = blocks.size() - 1;
+			int found = -1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int c = comparator.compare(blocks.get(mid).firstKey, key);
+				if (c < 0 || (inclusive && c == 0)) {
+					found = mid;
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return found;
+		}
+	}
+	
+	private static final class Block<K> {
+		
+		private final int segment;
+		
+		private final int offset;
+		
+		private final K firstKey;
+		
+		private final int count;
+		
+		
+		Block(int segment, int offset, K firstKey, int count) {
+			this.segment = segment;
+			this.offset = offset;
+			this.firstKey = firstKey;
+			this.count = count;
+		}
+	}
+	
+	/**
+	 * Iterates records in ascending order of key, after the given key exclusive.
+	 */
+	private final class AscendingCursor implements Iterator<T> {
+		
+		private final Index<K> index;
+		
+		private int block;
+		
+		private int remaining;
+		
+		private int offset;
+		
+		private T next;
+		
+		private K nextKey;
+		
+		
+		AscendingCursor(Index<K> index, K after) {
+			this.index = index;
+			block = after == null ? 0 : Math.max(index.floorBlock(after, true, comparator), 0);
+			enterBlock();
+			advance();
+			while (after != null && next != null && compare(nextKey, after) <= 0) {
+				advance();
+			}
+		}
+		
+		private void enterBlock() {
+			if (block < index.blocks.size()) {
+				remaining = index.blocks.get(block).count;
+				offset = index.blocks.get(block).offset;
+			}
+		}
+		
+		private void advance() {
+			if (remaining == 0) {
+				block++;
+				enterBlock();
+			}
+			if (block >= index.blocks.size()) {
+				next = null;
+				return;
+			}
+			Block<K> b = index.blocks.get(block);
+			ByteBuffer segment = index.segments.get(b.segment);
+			next = decode(segment, offset);
+			nextKey = checkOrder(nextKey, keyExtractor.apply(next), b);
+			offset += HEADER_SIZE + segment.getInt(offset);
+			remaining--;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+		
+		@Override
+		public T next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			T result = next;
+			advance();
+			return result;
+		}
+	}
+	
+	/**
+	 * Iterates records in descending order of key, before the given key exclusive.
+	 */
+	private final class DescendingCursor implements Iterator<T> {
+		
+		private final Index<K> index;
+		
+		private final K before;
+		
+		private int block;
+		
+		private List<T> decoded = new ArrayList<>();
+		
+		private int cursor;
+		
+		
+		DescendingCursor(Index<K> index, K before) {
+			this.index = index;
+			this.before = before;
+			block = before == null ? index.blocks.size() - 1 : index.floorBlock(before, false, comparator);
+			loadBlock();
+		}
+		
+		private void loadBlock() {
+			decoded.clear();
+			if (block < 0) {
+				cursor = -1;
+				return;
+			}
+			Block<K> b = index.blocks.get(block);
+			ByteBuffer segment = index.segments.get(b.segment);
+			int position = b.offset;
+			K key = null;
+			for (int i = 0; i < b.count; i++) {
+				T record = decode(segment, position);
+				key = checkOrder(key, keyExtractor.apply(record), b);
+				if (before != null && compare(key, before) >= 0) {
+					break;
+				}
+				decoded.add(record);
+				position += HEADER_SIZE + segment.getInt(position);
+			}
+			// the last record of this block must also precede the first one of the next block
+			if (decoded.size() == b.count && block + 1 < index.blocks.size()) {
+				checkOrder(key, index.blocks.get(block + 1).firstKey, b);
+			}
+			cursor = decoded.size() - 1;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			while (cursor < 0 && block >= 0) {
+				block--;
+				loadBlock();
+			}
+			return cursor >= 0;
+		}
+		
+		@Override
+		public T next() {
+			if (hasNext() == false) {
+				throw new NoSuchElementException();
+			}
+			return decoded.get(cursor--);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Lazily mapped read-only view of a {@link List}.
+ *
+ * <p>Elements are mapped on first access and memoized, so the mapper is applied at most once per element
+ * (unless the same element is accessed concurrently for the first time). Mapping a {@link MappedList} again
+ * fuses the mappers over the original source instead of stacking views.</p>
+ *
+ * @param <T> source element type
+ * @param <S> mapped element type
+ */
+final class MappedList<T, S> extends AbstractList<S> implements RandomAccess {
+	
+	private static final Object NULL = new Object();
+	
+	private final List<T> source;
+	
+	private final Function<? super T, ? extends S> mapper;
+	
+	private final AtomicReferenceArray<Object> results;
+	
+	
+	MappedList(List<T> source, Function<? super T, ? extends S> mapper) {
+		if (source == null) {
+			throw new IllegalArgumentException("source must not be null!");
+		}
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper must not be null!");
+		}
+		this.source = source;
+		this.mapper = mapper;
+		this.results = new AtomicReferenceArray<>(source.size());
+	}
+	
+	/**
+	 * Returns a lazily mapped list which applies the given mapper after the mapper of this list.
+	 *
+	 * @param <U> mapped element type
+	 * @param after mapper to apply after this one
+	 * @return fused mapped list over the same source
+	 */
+	<U> MappedList<T, U> andThen(Function<? super S, ? extends U> after) {
+		if (after == null) {
+			throw new IllegalArgumentException("mapper must not be null!");
+		}
+		Function<? super T, ? extends S> before = mapper;
+		return new MappedList<>(source, t -> after.apply(before.apply(t)));
+	}
+	
+	@Override
+	public S get(int index) {
+		Object result = results.get(index);
+		if (result == null) {
+			return memoize(index, source.get(index));
+		}
+		return unmask(result);
+	}
+	
+	@Override
+	public int size() {
+		return results.length();
+	}
+	
+	@Override
+	public Iterator<S> iterator() {
+		if (source instanceof RandomAccess) {
+			return super.iterator();
+		}
+		Iterator<T> it = source.iterator();
+		return new Iterator<S>() {
+			
+			private int index;
+			
+			
+			@Override
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+			
+			@Override
+			public S next() {
+				T element = it.next();
+				Object result = results.get(index);
+				if (result == null) {
+					return memoize(index++, element);
+				}
+				index++;
+				return unmask(result);
+			}
+		};
+	}
+	
+	private S memoize(int index, T element) {
+		S mapped = mapper.apply(element);
+		if (results.compareAndSet(index, null, mapped == null ? NULL : mapped)) {
+			return mapped;
+		}
+		// another thread has mapped the element concurrently, prefer the published result
+		return unmask(results.get(index));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private S unmask(Object result) {
+		return result == NULL ? null : (S) result;
+	}
+}
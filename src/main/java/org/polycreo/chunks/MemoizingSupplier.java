@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * {@link Supplier} which computes the value on first access and caches it.
+ *
+ * <p>The delegate is invoked at most once, even under concurrent access, and is released after
+ * the value has been computed. {@literal null} is a valid value.</p>
+ *
+ * @param <T> type of value
+ */
+final class MemoizingSupplier<T> implements Supplier<T> {
+	
+	private static final Object UNRESOLVED = new Object();
+	
+	private final AtomicReference<Object> value = new AtomicReference<>(UNRESOLVED);
+	
+	private Supplier<? extends T> delegate;
+	
+	
+	private MemoizingSupplier(Supplier<? extends T> delegate) {
+		this.delegate = delegate;
+	}
+	
+	/**
+	 * Returns a memoizing supplier of the given delegate.
+	 *
+	 * @param <T> type of value
+	 * @param delegate supplier to compute the value, must not be {@literal null}
+	 * @return memoizing supplier
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> Supplier<T> of(Supplier<? extends T> delegate) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("delegate must not be null!");
+		}
+		if (delegate instanceof MemoizingSupplier) {
+			return (Supplier<T>) delegate;
+		}
+		return new MemoizingSupplier<>(delegate);
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get() {
+		Object result = value.get();
+		if (result == UNRESOLVED) {
+			synchronized (this) {
+				result = value.get();
+				if (result == UNRESOLVED) {
+					result = delegate.get();
+					value.set(result);
+					delegate = null;
+				}
+			}
+		}
+		return (T) result;
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * {@link ChunkSource} which merges the chunks of several shards, each of which serves the elements of its
+ * partition by keyset pagination on the same key.
+ *
+ * <p>The first chunks of all shards are fetched in parallel, each sized to an even share of the requested page,
+ * and are merged by a k-way heap merge in the requested direction. A shard is asked for more, sized to what is
+ * still missing from the page, only when its elements run out before the page is filled. So at most about
+ * {@code maxPageSize + N} elements are fetched per page, instead of {@code N * maxPageSize}.</p>
+ *
+ * <p>The pagination token is composed by {@link CompositePaginationTokenEncoder} of the keys of the merged
+ * chunk and the token of each shard to resume from, which is encoded by its delegate encoder. The shards must
+ * therefore decode their tokens by the same encoding.</p>
+ *
+ * @param <K> type of key
+ * @param <T> type of element
+ */
+public class MergingChunkSource<K extends Serializable, T> implements ChunkSource<T> {
+	
+	private final List<AsyncChunkSource<T>> shards;
+	
+	private final Function<? super T, ? extends K> keyExtractor;
+	
+	private final Comparator<? super K> comparator;
+	
+	private final CompositePaginationTokenEncoder encoder;
+	
+	
+	/**
+	 * Creates a source which orders keys by their natural ordering, encodes tokens by
+	 * {@link CompositePaginationTokenEncoder} over the default encoder, and fetches from shards in parallel
+	 * on the default executor of {@link ChunkSource#async()}.
+	 *
+	 * @param shards sources of shards
+	 * @param keyExtractor function to extract key from element
+	 */
+	public MergingChunkSource(List<? extends ChunkSource<T>> shards, Function<? super T, ? extends K> keyExtractor) {
+		this(shards, keyExtractor, null, new CompositePaginationTokenEncoder(), AsyncExecutors.getDefault());
+	}
+	
+	/**
+	 * Creates a source.
+	 *
+	 * @param shards sources of shards
+	 * @param keyExtractor function to extract key from element
+	 * @param comparator comparator to order keys, or {@literal null} for the natural ordering
+	 * @param encoder encoder of pagination tokens
+	 * @param executor executor to fetch from shards in parallel
+	 */
+	@SuppressWarnings("unchecked")
+	public MergingChunkSource(List<? extends ChunkSource<T>> shards, Function<? super T, ? extends K> keyExtractor,
+			Comparator<? super K> comparator, CompositePaginationTokenEncoder encoder, Executor executor) {
+		if (shards == null || shards.isEmpty()) {
+			throw new IllegalArgumentException("shards must not be empty!");
+		}
+		if (keyExtractor == null) {
+			throw new IllegalArgumentException("keyExtractor must not be null!");
+		}
+		if (encoder == null) {
+			throw new IllegalArgumentException("encoder must not be null!");
+		}
+		if (executor == null) {
+			throw new IllegalArgumentException("executor must not be null!");
+		}
+		List<AsyncChunkSource<T>> asyncShards = new ArrayList<>(shards.size());
+		for (ChunkSource<T> shard : shards) {
+			asyncShards.add(shard.async(executor));
+		}
+		this.shards = Collections.unmodifiableList(asyncShards);
+		this.keyExtractor = keyExtractor;
+		this.comparator = comparator == null ? (Comparator<? super K>) Comparator.naturalOrder() : comparator;
+		this.encoder = encoder;
+	}
+	
+	@Override
+	public Chunk<T> findAll(Chunkable chunkable) {
+		boolean backward = chunkable.getPaginationRelation() == PaginationRelation.PREV;
+		// merge in the order of the requested direction, or against it to go back
+		Comparator<? super K> fetchOrder = (chunkable.getDirection() == Direction.DESC) == backward
+				? comparator : comparator.reversed();
+		Integer maxPageSize = chunkable.getMaxPageSize();
+		int size = maxPageSize == null ? Chunks.DEFAULT_MAX_PAGE_SIZE : maxPageSize;
+		
+		List<Cursor> cursors = openCursors(chunkable, backward, size);
+		PriorityQueue<Cursor> heap = new PriorityQueue<>(cursors.size(), (a, b) -> {
+			int c = fetchOrder.compare(a.headKey, b.headKey);
+			return c != 0 ? c : Integer.compare(a.index, b.index);
+		});
+		List<T> fetched = new ArrayList<>(size);
+		for (Cursor cursor : cursors) {
+			if (cursor.advance(size)) {
+				heap.add(cursor);
+			}
+		}
+		while (fetched.size() < size && heap.isEmpty() == false) {
+			Cursor cursor = heap.poll();
+			fetched.add(cursor.take());
+			if (cursor.advance(size - fetched.size())) {
+				heap.add(cursor);
+			}
+		}
+		boolean last = heap.isEmpty() && cursors.stream().noneMatch(c -> c.mayHaveMore);
+		
+		if (fetched.isEmpty()) {
+			return ChunkImpl.wrap(fetched, null, chunkable, last);
+		}
+		List<T> content = backward ? Chunks.reversed(fetched) : fetched;
+		return ChunkImpl.wrapDeferred(content, () -> computeToken(content, cursors, chunkable, backward),
+				chunkable, last);
+	}
+	
+	private List<Cursor> openCursors(Chunkable chunkable, boolean backward, int size) {
+		String token = chunkable.getPaginationToken();
+		List<String> shardTokens = encoder.extractShardTokens(token);
+		if (token != null && shardTokens.size() != shards.size()) {
+			// keys of the merged chunk are valid resume keys of every shard
+			String shardToken = encoder.getDelegate().encode(
+					encoder.extractFirstKey(token).orElse(null), encoder.extractLastKey(token).orElse(null));
+			shardTokens = Collections.nCopies(shards.size(), shardToken);
+		}
+		
+		int batch = Math.max(1, (size + shards.size() - 1) / shards.size());
+		List<CompletableFuture<Chunk<T>>> futures = new ArrayList<>(shards.size());
+		for (int i = 0; i < shards.size(); i++) {
+			Chunkable request = new ChunkRequest(token == null ? null : shardTokens.get(i),
+					chunkable.getPaginationRelation(), batch, chunkable.getDirection());
+			futures.add(shards.get(i).findAllAsync(request).toCompletableFuture());
+		}
+		List<Cursor> cursors = new ArrayList<>(shards.size());
+		for (int i = 0; i < shards.size(); i++) {
+			cursors.add(new Cursor(i, AsyncExecutors.join(futures.get(i)), backward));
+		}
+		return cursors;
+	}
+	
+	private String computeToken(List<T> content, List<Cursor> cursors, Chunkable chunkable, boolean backward) {
+		K firstKey = keyExtractor.apply(content.get(0));
+		K lastKey = keyExtractor.apply(content.get(content.size() - 1));
+		List<String> shardTokens = new ArrayList<>(cursors.size());
+		for (Cursor cursor : cursors) {
+			if (cursor.firstTakenKey == null) {
+				// the shard has no elements between the keys of the merged chunk
+				shardTokens.add(encoder.getDelegate().encode(firstKey, lastKey));
+			} else if (backward) {
+				shardTokens.add(encoder.getDelegate().encode(cursor.lastTakenKey, cursor.firstTakenKey));
+			} else {
+				shardTokens.add(encoder.getDelegate().encode(cursor.firstTakenKey, cursor.lastTakenKey));
+			}
+		}
+		return encoder.encode(chunkable.getPaginationToken() == null ? null : firstKey, lastKey, shardTokens);
+	}
+	
+	
+	/**
+	 * Position in the elements of a shard, in the fetch order.
+	 */
+	private final class Cursor {
+		
+		private final int index;
+		
+		private final boolean backward;
+		
+		private Chunk<T> chunk;
+		
+		private Iterator<T> iterator;
+		
+		private T head;
+		
+		private K headKey;
+		
+		private K firstTakenKey;
+		
+		private K lastTakenKey;
+		
+		private boolean mayHaveMore;
+		
+		
+		Cursor(int index, Chunk<T> chunk, boolean backward) {
+			this.index = index;
+			this.backward = backward;
+			open(chunk);
+		}
+		
+		private void open(Chunk<T> next) {
+			chunk = next;
+			iterator = (backward ? Chunks.reversed(next.getContent()) : next.getContent()).iterator();
+		}
+		
+		/**
+		 * Moves to the next element, fetching the next chunk of the shard if needed and still elements are missing.
+		 *
+		 * @param missing number of elements still missing from the merged chunk
+		 * @return whether there is the next element
+		 */
+		boolean advance(int missing) {
+			head = null;
+			headKey = null;
+			mayHaveMore = false;
+			while (iterator.hasNext() == false) {
+				boolean more = chunk.hasContent() && (backward ? chunk.hasPrevious() : chunk.hasNext());
+				if (more == false) {
+					return false;
+				}
+				if (missing <= 0) {
+					mayHaveMore = true;
+					return false;
+				}
+				Chunkable following = backward ? chunk.previousChunkable() : chunk.nextChunkable();
+				open(AsyncExecutors.join(shards.get(index).findAllAsync(new ChunkRequest(following.getPaginationToken(),
+						following.getPaginationRelation(), missing, following.getDirection())).toCompletableFuture()));
+			}
+			head = iterator.next();
+			headKey = keyExtractor.apply(head);
+			return true;
+		}
+		
+		T take() {
+			if (firstTakenKey == null) {
+				firstTakenKey = headKey;
+			}
+			lastTakenKey = headKey;
+			return head;
+		}
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * {@link ChunkSource} decorator which reports the latency of each fetch and the fetched chunk to
+ * {@link ChunkMetrics}, and records them as {@link ChunkEvents Flight Recorder events} if enabled.
+ *
+ * @param <T> type of element
+ */
+public class MeteredChunkSource<T> implements ChunkSource<T> {
+	
+	private final ChunkSource<T> delegate;
+	
+	private final ChunkMetrics metrics;
+	
+	
+	/**
+	 * Creates a decorator.
+	 *
+	 * @param delegate source to fetch chunks from
+	 * @param metrics listener to report to
+	 */
+	public MeteredChunkSource(ChunkSource<T> delegate, ChunkMetrics metrics) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("delegate must not be null!");
+		}
+		if (metrics == null) {
+			throw new IllegalArgumentException("metrics must not be null!");
+		}
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+	
+	@Override
+	public Chunk<T> findAll(Chunkable chunkable) {
+		Object event = ChunkEvents.beginFetch();
+		if (metrics == ChunkMetrics.NOOP) {
+			Chunk<T> chunk = delegate.findAll(chunkable);
+			ChunkEvents.commitFetch(event, chunkable, chunk);
+			return chunk;
+		}
+		long start = System.nanoTime();
+		Chunk<T> chunk = delegate.findAll(chunkable);
+		metrics.chunkFetched(chunkable, chunk, System.nanoTime() - start);
+		ChunkEvents.commitFetch(event, chunkable, chunk);
+		return chunk;
+	}
+}
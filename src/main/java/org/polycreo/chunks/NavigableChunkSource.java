@@ -0,0 +1,300 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.PaginationTokenEncoder;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * In-memory {@link ChunkSource} which keeps elements in a sorted index by key.
+ *
+ * <p>The resume position of a request is resolved from the key in its pagination token in {@code O(log n)},
+ * and each direction and pagination relation is served by iterating an ascending or descending view of
+ * the index, without copying or reversing the whole data set. The index is a {@link ConcurrentSkipListMap},
+ * so elements may be added or removed concurrently without blocking readers. Chunks reflect the state of
+ * the index at some point at or since the fetch began, as weakly consistent iterators do.</p>
+ *
+ * <p>Each fetch looks one element ahead, so chunks report definitively whether more elements follow.</p>
+ *
+ * <p>If the source is given a {@link SizeEstimator} and a byte budget, each fetch also stops before the estimated
+ * bytes of the chunk exceed the budget, though it always takes at least one element. Such a chunk reports that
+ * more elements follow, and its pagination token resumes after its last element.</p>
+ *
+ * @param <K> type of key
+ * @param <T> type of element
+ */
+public class NavigableChunkSource<K extends Serializable, T> implements ChunkSource<T> {
+	
+	private static final int MAX_INITIAL_CAPACITY = 1024;
+	
+	private final ConcurrentNavigableMap<K, T> ascending;
+	
+	private final ConcurrentNavigableMap<K, T> descending;
+	
+	private final Comparator<? super K> comparator;
+	
+	private final Function<? super T, ? extends K> keyExtractor;
+	
+	private final Function<? super String, ? extends K> keyParser;
+	
+	private final PaginationTokenEncoder encoder;
+	
+	private final SizeEstimator<? super T> sizeEstimator;
+	
+	private final long maxBytes;
+	
+	
+	/**
+	 * Creates an empty source which orders keys by their natural ordering and encodes tokens by
+	 * {@link SimplePaginationTokenEncoder}.
+	 *
+	 * @param keyExtractor function to extract key from element
+	 * @param keyParser function to parse key from its string form in a pagination token
+	 */
+	public NavigableChunkSource(Function<? super T, ? extends K> keyExtractor,
+			Function<? super String, ? extends K> keyParser) {
+		this(keyExtractor, keyParser, null, new SimplePaginationTokenEncoder());
+	}
+	
+	/**
+	 * Creates an empty source.
+	 *
+	 * @param keyExtractor function to extract key from element
+	 * @param keyParser function to parse key from its string form in a pagination token
+	 * @param comparator comparator to order keys, or {@literal null} for the natural ordering
+	 * @param encoder encoder of pagination tokens
+	 */
+	public NavigableChunkSource(Function<? super T, ? extends K> keyExtractor,
+			Function<? super String, ? extends K> keyParser, Comparator<? super K> comparator,
+			PaginationTokenEncoder encoder) {
+		this(keyExtractor, keyParser, comparator, encoder, null, Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Creates an empty source which bounds chunks by estimated bytes as well as by the maximum page size.
+	 *
+	 * @param keyExtractor function to extract key from element
+	 * @param keyParser function to parse key from its string form in a pagination token
+	 * @param comparator comparator to order keys, or {@literal null} for the natural ordering
+	 * @param encoder encoder of pagination tokens
+	 * @param sizeEstimator estimator of element bytes, or {@literal null} not to bound chunks by bytes
+	 * @param maxBytes maximum estimated bytes of a chunk, which is exceeded only by chunks of one element
+	 */
+	public NavigableChunkSource(Function<? super T, ? extends K> keyExtractor,
+			Function<? super String, ? extends K> keyParser, Comparator<? super K> comparator,
+			PaginationTokenEncoder encoder, SizeEstimator<? super T> sizeEstimator, long maxBytes) {
+		if (keyExtractor == null) {
+			throw new IllegalArgumentException("keyExtractor must not be null!");
+		}
+		if (keyParser == null) {
+			throw new IllegalArgumentException("keyParser must not be null!");
+		}
+		if (encoder == null) {
+			throw new IllegalArgumentException("encoder must not be null!");
+		}
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("maxBytes must be positive!");
+		}
+		this.ascending = new ConcurrentSkipListMap<>(comparator);
+		this.descending = ascending.descendingMap();
+		this.comparator = comparator == null ? naturalOrder() : comparator;
+		this.keyExtractor = keyExtractor;
+		this.keyParser = keyParser;
+		this.encoder = encoder;
+		this.sizeEstimator = sizeEstimator;
+		this.maxBytes = maxBytes;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <K> Comparator<? super K> naturalOrder() {
+		return (Comparator<? super K>) Comparator.naturalOrder();
+	}
+	
+	/**
+	 * Adds the given element, replacing the element with the same key if present.
+	 *
+	 * @param element element to add
+	 * @return the replaced element, or {@literal null} if there was none
+	 */
+	public T put(T element) {
+		return ascending.put(keyOf(element), element);
+	}
+	
+	/**
+	 * Adds all of the given elements, replacing the elements with the same keys if present.
+	 *
+	 * @param elements elements to add
+	 */
+	public void putAll(Collection<? extends T> elements) {
+		elements.forEach(this::put);
+	}
+	
+	/**
+	 * Returns the element of the given key.
+	 *
+	 * @param key key of the element
+	 * @return the element, or {@literal null} if there is none
+	 */
+	public T get(K key) {
+		return ascending.get(key);
+	}
+	
+	/**
+	 * Removes the element of the given key.
+	 *
+	 * @param key key of the element
+	 * @return the removed element, or {@literal null} if there was none
+	 */
+	public T remove(K key) {
+		return ascending.remove(key);
+	}
+	
+	/**
+	 * Removes all of the elements.
+	 */
+	public void clear() {
+		ascending.clear();
+	}
+	
+	/**
+	 * Returns the number of elements. This is not a constant-time operation.
+	 *
+	 * @return the number of elements
+	 */
+	public int size() {
+		return ascending.size();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>If the request is a {@link SegmentChunkRequest}, only the elements within its bounds are served.</p>
+	 */
+	@Override
+	public Chunk<T> findAll(Chunkable chunkable) {
+		PaginationRelation relation = chunkable.getPaginationRelation();
+		boolean backward = relation == PaginationRelation.PREV;
+		// iterate in the order of the requested direction, or against it to go back
+		boolean ascendingOrder = (chunkable.getDirection() == Direction.DESC) == backward;
+		
+		K start = null;
+		String token = chunkable.getPaginationToken();
+		if (token != null) {
+			Object event = ChunkEvents.beginToken();
+			String key = (backward ? encoder.extractFirstKey(token) : encoder.extractLastKey(token)).orElse(null);
+			ChunkEvents.commitToken(event, false, token);
+			if (key != null) {
+				start = keyParser.apply(key);
+			}
+		}
+		K end = null;
+		if (chunkable instanceof SegmentChunkRequest) {
+			SegmentChunkRequest segment = (SegmentChunkRequest) chunkable;
+			K lower = segment.getLowerBound() == null ? null : keyParser.apply(segment.getLowerBound());
+			K upper = segment.getUpperBound() == null ? null : keyParser.apply(segment.getUpperBound());
+			if (ascendingOrder) {
+				if (lower != null && (start == null || comparator.compare(start, lower) < 0)) {
+					return fetch(chunkable, ascending.tailMap(lower, true), upper, backward, ascendingOrder);
+				}
+				end = upper;
+			} else {
+				if (upper != null && (start == null || comparator.compare(start, upper) > 0)) {
+					start = upper;
+				}
+				end = lower;
+			}
+		}
+		ConcurrentNavigableMap<K, T> view = ascendingOrder ? ascending : descending;
+		if (start != null) {
+			view = view.tailMap(start, false);
+		}
+		return fetch(chunkable, view, end, backward, ascendingOrder);
+	}
+	
+	private Chunk<T> fetch(Chunkable chunkable, ConcurrentNavigableMap<K, T> view, K end, boolean backward,
+			boolean ascendingOrder) {
+		Integer maxPageSize = chunkable.getMaxPageSize();
+		int size = maxPageSize == null ? Chunks.DEFAULT_MAX_PAGE_SIZE : maxPageSize;
+		Iterator<T> iterator = view.values().iterator();
+		List<T> fetched = new ArrayList<>(Math.min(size, MAX_INITIAL_CAPACITY));
+		boolean last = false;
+		boolean overBudget = false;
+		long bytes = 0;
+		while (fetched.size() < size && last == false && overBudget == false) {
+			T element = iterator.hasNext() ? iterator.next() : null;
+			if (element == null || isBeyond(element, end, ascendingOrder)) {
+				last = true;
+			} else if (sizeEstimator == null) {
+				fetched.add(element);
+			} else {
+				bytes += sizeEstimator.estimateBytes(element);
+				// the element over the budget shows that more elements follow
+				overBudget = bytes > maxBytes && fetched.isEmpty() == false;
+				if (overBudget == false) {
+					fetched.add(element);
+				}
+			}
+		}
+		if (last == false && overBudget == false) {
+			last = iterator.hasNext() == false || isBeyond(iterator.next(), end, ascendingOrder);
+		}
+		
+		if (fetched.isEmpty()) {
+			return ChunkImpl.wrap(fetched, null, chunkable, last);
+		}
+		List<T> content = backward ? Chunks.reversed(fetched) : fetched;
+		boolean includeFirstKey = chunkable.getPaginationToken() != null;
+		return ChunkImpl.wrapDeferred(content, () -> computeToken(content, includeFirstKey), chunkable, last);
+	}
+	
+	/**
+	 * Returns whether the given element is at or beyond the given end bound of a segment in the fetch order.
+	 * The lower bound is inclusive, so an element at the lower bound is not beyond it in the descending order.
+	 */
+	private boolean isBeyond(T element, K end, boolean ascendingOrder) {
+		if (end == null) {
+			return false;
+		}
+		int c = comparator.compare(keyExtractor.apply(element), end);
+		return ascendingOrder ? c >= 0 : c < 0;
+	}
+	
+	private K keyOf(T element) {
+		if (element == null) {
+			throw new IllegalArgumentException("element must not be null!");
+		}
+		return keyExtractor.apply(element);
+	}
+	
+	private String computeToken(List<T> content, boolean includeFirstKey) {
+		K firstKey = includeFirstKey ? keyExtractor.apply(content.get(0)) : null;
+		K lastKey = keyExtractor.apply(content.get(content.size() - 1));
+		return encoder.encode(firstKey, lastKey);
+	}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.polycreo.chunkrequests.Chunkable;
+
+/**
+ * Base of {@link Chunk}s backed by a primitive array, which share the pagination token, {@link Chunkable} and
+ * navigation state handling of {@link ChunkImpl}. Subclasses provide unboxed access to the values.
+ *
+ * @param <E> boxed element type
+ * @param <V> type of view of the array
+ */
+abstract class PrimitiveArrayChunk<E extends Serializable, V extends PrimitiveArrayView<E>> extends ChunkImpl<E> {
+	
+	final V values;
+	
+	
+	PrimitiveArrayChunk(V values, Supplier<String> paginationToken, Chunkable chunkable, Boolean last) {
+		super(values, paginationToken, chunkable, last);
+		this.values = values;
+	}
+	
+	/**
+	 * Returns a {@link Chunk} of the values at each index converted by the given function, which shares the
+	 * pagination token, {@link Chunkable} and navigation state of this chunk. The content is a lazy view, so each
+	 * value is converted on first access.
+	 *
+	 * @param <S> element type of the new chunk
+	 * @param mapper function to convert the value at an index
+	 * @return chunk of the converted values
+	 */
+	<S> Chunk<S> mapIndexed(IntFunction<? extends S> mapper) {
+		return withContent(new IndexMappedList<>(values.size(), mapper));
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Base of unmodifiable list views of primitive arrays, which box elements only when they are accessed as
+ * objects. Subclasses provide access to the elements of the array.
+ *
+ * @param <E> boxed element type
+ */
+abstract class PrimitiveArrayView<E extends Serializable> extends AbstractList<E> implements RandomAccess {
+	
+	private final int size;
+	
+	
+	PrimitiveArrayView(int size) {
+		this.size = size;
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	
+	/**
+	 * Base of primitive iterators over the array, which keeps track of the index of the next element.
+	 */
+	abstract class Cursor {
+		
+		private int index;
+		
+		
+		public boolean hasNext() {
+			return index < size;
+		}
+		
+		/**
+		 * Returns the index of the next element and advances the cursor.
+		 *
+		 * @throws NoSuchElementException if the iteration has no more elements
+		 */
+		int nextIndex() {
+			if (index >= size) {
+				throw new NoSuchElementException();
+			}
+			return index++;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decoder of the records stored in a file read by {@link MappedFileChunkSource}.
+ *
+ * @param <T> type of record
+ */
+@FunctionalInterface
+public interface RecordCodec<T> {
+	
+	/**
+	 * Decodes a record from the given buffer.
+	 *
+	 * <p>The buffer is read-only, and its position and limit delimit the payload of the record. The codec
+	 * may move the position, but must not retain the buffer, since it maps the file directly.</p>
+	 *
+	 * @param payload payload of the record
+	 * @return decoded record
+	 */
+	T decode(ByteBuffer payload);
+}
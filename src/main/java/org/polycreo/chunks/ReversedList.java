@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Reverse-ordered read-only view of a {@link List}.
+ *
+ * @param <E> element type
+ */
+final class ReversedList<E> extends AbstractList<E> {
+	
+	private final List<E> delegate;
+	
+	
+	ReversedList(List<E> delegate) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("delegate must not be null!");
+		}
+		this.delegate = delegate;
+	}
+	
+	/**
+	 * Returns the list which this view reverses.
+	 *
+	 * @return original list
+	 */
+	List<E> getDelegate() {
+		return delegate;
+	}
+	
+	@Override
+	public E get(int index) {
+		int size = delegate.size();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return delegate.get(size - 1 - index);
+	}
+	
+	@Override
+	public int size() {
+		return delegate.size();
+	}
+	
+	@Override
+	public Iterator<E> iterator() {
+		ListIterator<E> it = delegate.listIterator(delegate.size());
+		return new Iterator<E>() {
+			
+			@Override
+			public boolean hasNext() {
+				return it.hasPrevious();
+			}
+			
+			@Override
+			public E next() {
+				return it.previous();
+			}
+		};
+	}
+}
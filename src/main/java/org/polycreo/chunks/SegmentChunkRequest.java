@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import lombok.Value;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * {@link Chunkable} which restricts the pagination to a segment of the key space.
+ *
+ * <p>The segment covers the keys from {@link #getLowerBound()} inclusive to {@link #getUpperBound()} exclusive,
+ * in the order of keys regardless of the direction. The bounds are in the string form of keys, as in pagination
+ * tokens, and {@literal null} bound means the segment is open on that end. Sources which support segments,
+ * such as {@link NavigableChunkSource}, serve only the elements in the segment.</p>
+ *
+ * @see KeyRangeSplitter
+ * @see Chunks#streamAll(ChunkSource, java.util.List)
+ */
+@Value
+public class SegmentChunkRequest implements Chunkable {
+	
+	private String paginationToken;
+	
+	private PaginationRelation paginationRelation;
+	
+	private Integer maxPageSize;
+	
+	private Direction direction;
+	
+	/**
+	 * Identifier of the segment.
+	 */
+	private int segment;
+	
+	/**
+	 * Lowest key of the segment inclusive, or {@literal null} if unbounded.
+	 */
+	private String lowerBound;
+	
+	/**
+	 * Highest key of the segment exclusive, or {@literal null} if unbounded.
+	 */
+	private String upperBound;
+	
+	
+	/**
+	 * Returns a request of the same segment, with the pagination of the given request.
+	 * This is to follow {@link Chunk#nextChunkable()} and {@link Chunk#previousChunkable()} within the segment.
+	 *
+	 * @param chunkable request to take the pagination from
+	 * @return request of this segment
+	 */
+	public SegmentChunkRequest follow(Chunkable chunkable) {
+		return new SegmentChunkRequest(chunkable.getPaginationToken(), chunkable.getPaginationRelation(),
+				chunkable.getMaxPageSize(), chunkable.getDirection(), segment, lowerBound, upperBound);
+	}
+}
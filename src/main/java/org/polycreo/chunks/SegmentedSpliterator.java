@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * {@link Spliterator} over all elements of several segments, which splits by segment.
+ *
+ * <p>Each segment is traversed by following {@link Chunk#nextChunkable()} within it, so the pages of a segment
+ * are fetched one after another, while different segments are fetched independently by the threads of
+ * a parallel stream.</p>
+ *
+ * @param <T> element type
+ */
+final class SegmentedSpliterator<T> implements Spliterator<T> {
+	
+	private final ChunkSource<T> source;
+	
+	private final List<SegmentChunkRequest> segments;
+	
+	private final int fence;
+	
+	private int index;
+	
+	private Iterator<T> current;
+	
+	
+	SegmentedSpliterator(ChunkSource<T> source, List<SegmentChunkRequest> segments) {
+		this(source, segments, null, 0, segments.size());
+	}
+	
+	private SegmentedSpliterator(ChunkSource<T> source, List<SegmentChunkRequest> segments, Iterator<T> current,
+			int index, int fence) {
+		this.source = source;
+		this.segments = segments;
+		this.current = current;
+		this.index = index;
+		this.fence = fence;
+	}
+	
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		while (current == null || current.hasNext() == false) {
+			current = null;
+			if (index >= fence) {
+				return false;
+			}
+			SegmentChunkRequest segment = segments.get(index++);
+			current = Chunks.iterateAll(c -> source.findAll(segment.follow(c)), segment);
+		}
+		action.accept(current.next());
+		return true;
+	}
+	
+	@Override
+	public Spliterator<T> trySplit() {
+		// the prefix takes over the segment in progress, if any, and the first half of the segments not started
+		int remaining = fence - index + (current == null ? 0 : 1);
+		if (remaining < 2) {
+			return null;
+		}
+		int middle = fence - remaining / 2;
+		Spliterator<T> prefix = new SegmentedSpliterator<>(source, segments, current, index, middle);
+		current = null;
+		index = middle;
+		return prefix;
+	}
+	
+	@Override
+	public long estimateSize() {
+		return index >= fence && current == null ? 0 : Long.MAX_VALUE;
+	}
+	
+	@Override
+	public int characteristics() {
+		return ORDERED;
+	}
+}
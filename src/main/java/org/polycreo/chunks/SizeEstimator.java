@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+/**
+ * Estimator of the memory an element occupies, which bounds chunks by bytes in addition to the number of elements.
+ *
+ * @param <T> type of element
+ * @see ChunkFactory#createChunk(java.util.List, org.polycreo.chunkrequests.Chunkable, SizeEstimator, long)
+ * @see NavigableChunkSource#NavigableChunkSource(java.util.function.Function, java.util.function.Function,
+ *     java.util.Comparator, org.polycreo.chunkrequests.PaginationTokenEncoder, SizeEstimator, long)
+ */
+@FunctionalInterface
+public interface SizeEstimator<T> {
+	
+	/**
+	 * Returns the estimated number of bytes of the given element. The estimate needs not be exact, but should be
+	 * cheap, since it is called for every element of every chunk.
+	 *
+	 * @param element element
+	 * @return estimated bytes, not negative
+	 */
+	long estimateBytes(T element);
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+
+/**
+ * {@link ChunkMetrics} which records events in process with striped counters, so that concurrent pages do not
+ * contend on a shared counter. Distributions are recorded in histograms of power-of-two buckets.
+ *
+ * <p>How deep clients go into result sets is estimated from the number of requests with a pagination token
+ * (hops) per request without one (walks), as chunk requests do not carry their depth.</p>
+ */
+public class StripedChunkMetrics implements ChunkMetrics {
+	
+	private final Histogram pageSizes = new Histogram();
+	
+	private final LongAdder lastChunks = new LongAdder();
+	
+	private final Histogram idExtractionNanos = new Histogram();
+	
+	private final Histogram encodingNanos = new Histogram();
+	
+	private final Histogram fetchNanos = new Histogram();
+	
+	private final LongAdder walks = new LongAdder();
+	
+	private final LongAdder nextHops = new LongAdder();
+	
+	private final LongAdder previousHops = new LongAdder();
+	
+	
+	@Override
+	public void chunkCreated(Chunk<?> chunk) {
+		pageSizes.record(chunk.size());
+		if (chunk.isLast()) {
+			lastChunks.increment();
+		}
+	}
+	
+	@Override
+	public void tokenComputed(long idExtractionNanos, long encodingNanos) {
+		this.idExtractionNanos.record(idExtractionNanos);
+		this.encodingNanos.record(encodingNanos);
+	}
+	
+	@Override
+	public void chunkFetched(Chunkable chunkable, Chunk<?> chunk, long nanos) {
+		fetchNanos.record(nanos);
+		if (chunkable.getPaginationToken() == null) {
+			walks.increment();
+		} else if (chunkable.getPaginationRelation() == PaginationRelation.PREV) {
+			previousHops.increment();
+		} else {
+			nextHops.increment();
+		}
+	}
+	
+	/**
+	 * Returns the distribution of the sizes of created chunks.
+	 *
+	 * @return histogram of page sizes
+	 */
+	public Histogram getPageSizes() {
+		return pageSizes;
+	}
+	
+	/**
+	 * Returns the number of created chunks which reported {@link Chunk#isLast()}.
+	 *
+	 * @return number of last chunks
+	 */
+	public long getLastChunks() {
+		return lastChunks.sum();
+	}
+	
+	/**
+	 * Returns the distribution of nanoseconds spent extracting keys for pagination tokens.
+	 *
+	 * @return histogram of nanoseconds
+	 */
+	public Histogram getIdExtractionNanos() {
+		return idExtractionNanos;
+	}
+	
+	/**
+	 * Returns the distribution of nanoseconds spent encoding pagination tokens.
+	 *
+	 * @return histogram of nanoseconds
+	 */
+	public Histogram getEncodingNanos() {
+		return encodingNanos;
+	}
+	
+	/**
+	 * Returns the distribution of nanoseconds spent fetching chunks from sources.
+	 *
+	 * @return histogram of nanoseconds
+	 */
+	public Histogram getFetchNanos() {
+		return fetchNanos;
+	}
+	
+	/**
+	 * Returns the number of fetched requests without pagination token, that is, the first pages of walks.
+	 *
+	 * @return number of walks
+	 */
+	public long getWalks() {
+		return walks.sum();
+	}
+	
+	/**
+	 * Returns the number of fetched requests which follow a {@link PaginationRelation#NEXT} token.
+	 *
+	 * @return number of hops forward
+	 */
+	public long getNextHops() {
+		return nextHops.sum();
+	}
+	
+	/**
+	 * Returns the number of fetched requests which follow a {@link PaginationRelation#PREV} token.
+	 *
+	 * @return number of hops backward
+	 */
+	public long getPreviousHops() {
+		return previousHops.sum();
+	}
+	
+	/**
+	 * Returns the mean number of token hops per walk.
+	 *
+	 * @return hops per walk, or {@code 0} if no walk has been fetched
+	 */
+	public double getMeanHopsPerWalk() {
+		long count = getWalks();
+		return count == 0 ? 0 : (getNextHops() + getPreviousHops()) / (double) count;
+	}
+	
+	
+	/**
+	 * Histogram of non-negative values in power-of-two buckets, backed by striped counters.
+	 * Bucket {@code 0} counts zeros, and bucket {@code b} counts values from {@code 2^(b-1)} to {@code 2^b - 1}.
+	 */
+	public static class Histogram {
+		
+		private static final int BUCKETS = Long.SIZE;
+		
+		
+		private final LongAdder[] counts = new LongAdder[BUCKETS];
+		
+		private final LongAdder sum = new LongAdder();
+		
+		
+		Histogram() {
+			for (int i = 0; i < BUCKETS; i++) {
+				counts[i] = new LongAdder();
+			}
+		}
+		
+		void record(long value) {
+			long v = Math.max(value, 0);
+			counts[Long.SIZE - Long.numberOfLeadingZeros(v)].increment();
+			sum.add(v);
+		}
+		
+		/**
+		 * Returns the number of recorded values.
+		 *
+		 * @return count
+		 */
+		public long getCount() {
+			long count = 0;
+			for (LongAdder c : counts) {
+				count += c.sum();
+			}
+			return count;
+		}
+		
+		/**
+		 * Returns the sum of recorded values.
+		 *
+		 * @return sum
+		 */
+		public long getSum() {
+			return sum.sum();
+		}
+		
+		/**
+		 * Returns the mean of recorded values.
+		 *
+		 * @return mean, or {@code 0} if nothing has been recorded
+		 */
+		public double getMean() {
+			long count = getCount();
+			return count == 0 ? 0 : getSum() / (double) count;
+		}
+		
+		/**
+		 * Returns an upper bound of the given percentile, that is, the highest value of the bucket it falls in.
+		 *
+		 * @param percentile percentile from {@code 0} to {@code 100}
+		 * @return upper bound of the percentile, or {@code 0} if nothing has been recorded
+		 */
+		public long getValueAtPercentile(double percentile) {
+			if (percentile < 0 || percentile > 100) {
+				throw new IllegalArgumentException("percentile must be between 0 and 100!");
+			}
+			long[] snapshot = new long[BUCKETS];
+			long count = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				snapshot[i] = counts[i].sum();
+				count += snapshot[i];
+			}
+			long rank = (long) Math.ceil(count * percentile / 100);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += snapshot[i];
+				if (seen >= rank && snapshot[i] > 0) {
+					return (1L << i) - 1; // Long.MAX_VALUE for the highest bucket
+				}
+			}
+			return 0;
+		}
+	}
+}
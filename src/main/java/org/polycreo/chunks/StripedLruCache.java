@@ -0,0 +1,304 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded cache which is split into segments of least-recently-used maps, each guarded by its own lock.
+ *
+ * <p>The maximum number of entries and the maximum total weight bound the whole cache rather than each
+ * segment, so an entry may weigh up to the maximum total weight. When the cache exceeds either of them,
+ * entries are evicted in least-recently-used order of the segment of the inserted entry first, and then of
+ * the other segments, which approximates the least-recently-used order of the whole cache. Entries expire
+ * after the time to live since they were loaded. Concurrent misses for the same key share one load. A value
+ * which is being loaded when its segment is invalidated is returned to its callers but is not cached.</p>
+ *
+ * @param <K> type of key
+ * @param <V> type of value
+ */
+final class StripedLruCache<K, V> {
+	
+	private static final int SEGMENTS = 16;
+	
+	private final Segment<K, V>[] segments;
+	
+	private final ConcurrentMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+	
+	private final AtomicLong size = new AtomicLong();
+	
+	private final AtomicLong weight = new AtomicLong();
+	
+	private final long maximumSize;
+	
+	private final long maximumWeight;
+	
+	private final ToLongFunction<? super V> weigher;
+	
+	private final long timeToLiveNanos;
+	
+	private final LongSupplier ticker;
+	
+	
+	/**
+	 * Creates a cache.
+	 *
+	 * @param maximumSize maximum number of entries
+	 * @param maximumWeight maximum total weight of entries
+	 * @param weigher function to compute the weight of a value
+	 * @param timeToLiveNanos time to live of entries in nanoseconds, or {@link Long#MAX_VALUE} not to expire
+	 * @param ticker source of time in nanoseconds
+	 */
+	@SuppressWarnings("unchecked")
+	StripedLruCache(long maximumSize, long maximumWeight, ToLongFunction<? super V> weigher, long timeToLiveNanos,
+			LongSupplier ticker) {
+		if (maximumSize <= 0) {
+			throw new IllegalArgumentException("maximumSize must be positive!");
+		}
+		if (maximumWeight <= 0) {
+			throw new IllegalArgumentException("maximumWeight must be positive!");
+		}
+		if (timeToLiveNanos <= 0) {
+			throw new IllegalArgumentException("timeToLive must be positive!");
+		}
+		this.segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment<>();
+		}
+		this.maximumSize = maximumSize;
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+		this.timeToLiveNanos = timeToLiveNanos;
+		this.ticker = ticker;
+	}
+	
+	/**
+	 * Returns the cached value of the given key, loading it by the given function on a miss.
+	 * A {@literal null} value is returned as is and is not cached.
+	 *
+	 * @param key key
+	 * @param loader function to load the value of a key
+	 * @return the value
+	 */
+	V get(K key, Function<? super K, ? extends V> loader) {
+		V value = getIfPresent(key);
+		if (value != null) {
+			return value;
+		}
+		CompletableFuture<V> future = new CompletableFuture<>();
+		CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+		if (inFlight != null) {
+			return AsyncExecutors.join(inFlight);
+		}
+		try {
+			Segment<K, V> segment = segmentFor(key);
+			long generation;
+			synchronized (segment) {
+				generation = segment.generation;
+				// a load which completed since the lookup above has cached the value already
+				value = lookup(segment, key);
+			}
+			if (value == null) {
+				value = loader.apply(key);
+				if (value != null) {
+					put(segment, key, value, generation);
+				}
+			}
+			future.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) { // NOPMD - rethrown after handing over to waiting callers
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			loading.remove(key, future);
+		}
+	}
+	
+	/**
+	 * Returns the cached value of the given key.
+	 *
+	 * @param key key
+	 * @return the value, or {@literal null} if it is not cached or has expired
+	 */
+	V getIfPresent(K key) {
+		Segment<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			return lookup(segment, key);
+		}
+	}
+	
+	/**
+	 * Returns the value of the given key in the segment. Must be called while holding the lock of the segment.
+	 */
+	private V lookup(Segment<K, V> segment, K key) {
+		Entry<V> entry = segment.map.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired(ticker.getAsLong())) {
+			discard(segment.map.remove(key));
+			return null;
+		}
+		return entry.value;
+	}
+	
+	private void put(Segment<K, V> segment, K key, V value, long generation) {
+		long entryWeight = weigher.applyAsLong(value);
+		if (entryWeight > maximumWeight) {
+			return;
+		}
+		long expiresAt = timeToLiveNanos == Long.MAX_VALUE ? Long.MAX_VALUE : ticker.getAsLong() + timeToLiveNanos;
+		synchronized (segment) {
+			// checked under the lock, since invalidation clears the segment under the lock after counting up
+			if (segment.generation != generation) {
+				return;
+			}
+			discard(segment.map.remove(key));
+			segment.map.put(key, new Entry<>(value, entryWeight, expiresAt));
+			size.incrementAndGet();
+			weight.addAndGet(entryWeight);
+			evict(segment, 1);
+		}
+		// evict from the other segments one at a time, never holding two locks at once
+		for (int i = 0; i < SEGMENTS && isOverBudget(); i++) {
+			Segment<K, V> other = segments[i];
+			if (other != segment) {
+				synchronized (other) {
+					evict(other, 0);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Evicts the least recently used entries of the segment while the cache is over budget, keeping the given
+	 * number of the most recently used ones. Must be called while holding the lock of the segment.
+	 */
+	private void evict(Segment<K, V> segment, int keep) {
+		Iterator<Entry<V>> iterator = segment.map.values().iterator();
+		for (int remaining = segment.map.size(); remaining > keep && isOverBudget(); remaining--) {
+			discard(iterator.next());
+			iterator.remove();
+		}
+	}
+	
+	private boolean isOverBudget() {
+		return size.get() > maximumSize || weight.get() > maximumWeight;
+	}
+	
+	private void discard(Entry<V> entry) {
+		if (entry != null) {
+			size.decrementAndGet();
+			weight.addAndGet(-entry.weight);
+		}
+	}
+	
+	/**
+	 * Discards the cached value of the given key.
+	 *
+	 * @param key key
+	 */
+	void invalidate(K key) {
+		Segment<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			segment.generation++;
+			discard(segment.map.remove(key));
+		}
+	}
+	
+	/**
+	 * Discards the cached values which match the given predicate.
+	 *
+	 * @param predicate predicate of key and value
+	 */
+	void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.generation++;
+				Iterator<Map.Entry<K, Entry<V>>> iterator = segment.map.entrySet().iterator();
+				while (iterator.hasNext()) {
+					Map.Entry<K, Entry<V>> e = iterator.next();
+					if (predicate.test(e.getKey(), e.getValue().value)) {
+						discard(e.getValue());
+						iterator.remove();
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Discards all of the cached values.
+	 */
+	void invalidateAll() {
+		invalidateIf((k, v) -> true);
+	}
+	
+	/**
+	 * Returns the number of cached values, including expired ones which are not discarded yet.
+	 *
+	 * @return the number of cached values
+	 */
+	long size() {
+		return size.get();
+	}
+	
+	private Segment<K, V> segmentFor(K key) {
+		int h = key.hashCode();
+		return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+	}
+	
+	
+	private static final class Segment<K, V> {
+		
+		private final LinkedHashMap<K, Entry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+		
+		/**
+		 * Count of invalidations of this segment, to discard loads which were in flight during one of them.
+		 */
+		private long generation;
+	}
+	
+	private static final class Entry<V> {
+		
+		private final V value;
+		
+		private final long weight;
+		
+		private final long expiresAt;
+		
+		
+		Entry(V value, long weight, long expiresAt) {
+			this.value = value;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+		
+		boolean isExpired(long now) {
+			return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+		}
+	}
+}
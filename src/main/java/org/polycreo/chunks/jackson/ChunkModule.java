@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import org.polycreo.chunks.Chunk;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Jackson module which registers {@link ChunkSerializer} for {@link Chunk}.
+ *
+ * <p>Without this module, {@link Chunk} is serialized as a plain JSON array of its content, because it is
+ * a {@link java.util.Collection}.</p>
+ */
+@SuppressWarnings("serial")
+public class ChunkModule extends SimpleModule {
+	
+	/**
+	 * Creates a module which writes the pagination token and content.
+	 */
+	public ChunkModule() {
+		this(false);
+	}
+	
+	/**
+	 * Creates a module.
+	 *
+	 * @param includeNavigation whether to write {@code hasNext} and {@code hasPrevious} flags
+	 */
+	public ChunkModule(boolean includeNavigation) {
+		super(ChunkModule.class.getSimpleName());
+		addSerializer(new ChunkSerializer(includeNavigation));
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import java.io.IOException;
+
+import org.polycreo.chunks.Chunk;
+import org.polycreo.chunks.ChunkEvents;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Jackson serializer which writes {@link Chunk} as an object, streaming its content element by element.
+ *
+ * <p>The pagination token (and navigation flags, if enabled) are written ahead of the content, so that
+ * streaming readers can access them before the content has been consumed. Value serializers are resolved
+ * once per element type and reused.</p>
+ *
+ * <pre>{"paginationToken":"...","hasNext":true,"hasPrevious":false,"content":[...]}</pre>
+ */
+@SuppressWarnings("serial")
+public class ChunkSerializer extends StdSerializer<Chunk<?>> {
+	
+	/** Field name of the pagination token. */
+	public static final String PAGINATION_TOKEN = "paginationToken";
+	
+	/** Field name of the next-chunk flag. */
+	public static final String HAS_NEXT = "hasNext";
+	
+	/** Field name of the previous-chunk flag. */
+	public static final String HAS_PREVIOUS = "hasPrevious";
+	
+	/** Field name of the content. */
+	public static final String CONTENT = "content";
+	
+	private final boolean includeNavigation;
+	
+	private PropertySerializerMap dynamicSerializers = PropertySerializerMap.emptyForProperties();
+	
+	
+	/**
+	 * Creates a serializer which writes the pagination token and content.
+	 */
+	public ChunkSerializer() {
+		this(false);
+	}
+	
+	/**
+	 * Creates a serializer.
+	 *
+	 * @param includeNavigation whether to write {@code hasNext} and {@code hasPrevious} flags
+	 */
+	@SuppressWarnings("unchecked")
+	public ChunkSerializer(boolean includeNavigation) {
+		super((Class<Chunk<?>>) (Class<?>) Chunk.class);
+		this.includeNavigation = includeNavigation;
+	}
+	
+	@Override
+	public void serialize(Chunk<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		Object event = ChunkEvents.beginSerialize();
+		gen.writeStartObject(value);
+		writeFields(value, gen, provider);
+		gen.writeEndObject();
+		ChunkEvents.commitSerialize(event, value);
+	}
+	
+	@Override
+	public void serializeWithType(Chunk<?> value, JsonGenerator gen, SerializerProvider provider,
+			TypeSerializer typeSer) throws IOException {
+		Object event = ChunkEvents.beginSerialize();
+		gen.setCurrentValue(value);
+		WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+		writeFields(value, gen, provider);
+		typeSer.writeTypeSuffix(gen, typeId);
+		ChunkEvents.commitSerialize(event, value);
+	}
+	
+	private void writeFields(Chunk<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeStringField(PAGINATION_TOKEN, value.getPaginationToken());
+		if (includeNavigation && value.getChunkable() != null) {
+			gen.writeBooleanField(HAS_NEXT, value.hasNext());
+			gen.writeBooleanField(HAS_PREVIOUS, value.hasPrevious());
+		}
+		gen.writeFieldName(CONTENT);
+		gen.writeStartArray();
+		for (Object element : value) {
+			if (element == null) {
+				provider.defaultSerializeNull(gen);
+			} else {
+				serializerFor(element.getClass(), provider).serialize(element, gen, provider);
+			}
+		}
+		gen.writeEndArray();
+	}
+	
+	private JsonSerializer<Object> serializerFor(Class<?> type, SerializerProvider provider) throws IOException {
+		PropertySerializerMap serializers = dynamicSerializers;
+		JsonSerializer<Object> serializer = serializers.serializerFor(type);
+		if (serializer == null) {
+			PropertySerializerMap.SerializerAndMapResult result =
+					serializers.findAndAddSecondarySerializer(type, provider, null);
+			dynamicSerializers = result.map;
+			serializer = result.serializer;
+		}
+		return serializer;
+	}
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunks.Chunk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * {@link Chunk} which holds only its serialized form and its navigation state, so that it can be written out
+ * repeatedly without serializing its content again.
+ *
+ * <p>The serialized form is produced once by the {@link ObjectWriter} of the application, so it is identical
+ * to the output of serializing the chunk by that writer, whatever the wire format and the configuration of
+ * the writer are. It is kept in the heap array the writer produced, so that caching many chunks does not
+ * consume direct memory and encoding makes no further copy. Combined with
+ * {@link org.polycreo.chunks.CachingChunkSource} over an {@link EncodingChunkSource}, cache hits skip
+ * serialization entirely.</p>
+ *
+ * <p>The original chunk is not retained, so the serialized form is all the content a cached chunk holds.
+ * The pagination token, size, fingerprint and navigation state are captured when the chunk is encoded.
+ * The content is decoded from the serialized form by the given {@link ObjectReader} each time it is accessed,
+ * and is not retained either.</p>
+ *
+ * @param <T> entity type
+ */
+public class EncodedChunk<T> extends AbstractCollection<T> implements Chunk<T> {
+	
+	private final byte[] encoded;
+	
+	private final ObjectReader reader;
+	
+	private final int size;
+	
+	private final long fingerprint;
+	
+	private final String paginationToken;
+	
+	private final Chunkable chunkable;
+	
+	private final Direction direction;
+	
+	private final boolean first;
+	
+	private final boolean last;
+	
+	private final Chunkable nextChunkable;
+	
+	private final Chunkable previousChunkable;
+	
+	
+	private EncodedChunk(Chunk<T> chunk, byte[] encoded, ObjectReader reader) {
+		this.encoded = encoded;
+		this.reader = reader;
+		size = chunk.size();
+		fingerprint = chunk.getFingerprint();
+		paginationToken = chunk.getPaginationToken();
+		chunkable = chunk.getChunkable();
+		direction = chunk.getDirection();
+		first = chunk.isFirst();
+		last = chunk.isLast();
+		nextChunkable = chunk.hasNext() ? chunk.nextChunkable() : null;
+		previousChunkable = chunk.hasPrevious() ? chunk.previousChunkable() : null;
+	}
+	
+	/**
+	 * Serializes the given chunk by the given writer.
+	 *
+	 * @param <T> entity type
+	 * @param chunk chunk to serialize
+	 * @param writer writer to serialize the chunk
+	 * @param reader reader of elements to decode the content, created by the mapper of the writer
+	 * @return the encoded chunk
+	 * @throws UncheckedIOException if the chunk cannot be serialized
+	 */
+	public static <T> EncodedChunk<T> encode(Chunk<T> chunk, ObjectWriter writer, ObjectReader reader) {
+		if (chunk == null) {
+			throw new IllegalArgumentException("chunk must not be null!");
+		}
+		if (writer == null) {
+			throw new IllegalArgumentException("writer must not be null!");
+		}
+		if (reader == null) {
+			throw new IllegalArgumentException("reader must not be null!");
+		}
+		byte[] bytes;
+		try {
+			bytes = writer.writeValueAsBytes(chunk);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+		return new EncodedChunk<>(chunk, bytes, reader);
+	}
+	
+	/**
+	 * Returns the given chunk if it is already encoded, or serializes it by the given writer otherwise.
+	 *
+	 * @param <T> entity type
+	 * @param chunk chunk to serialize
+	 * @param writer writer to serialize the chunk, which should be the one it was encoded by if it is encoded
+	 * @param reader reader of elements to decode the content, created by the mapper of the writer
+	 * @return the encoded chunk
+	 * @throws UncheckedIOException if the chunk cannot be serialized
+	 */
+	public static <T> EncodedChunk<T> from(Chunk<T> chunk, ObjectWriter writer, ObjectReader reader) {
+		if (chunk instanceof EncodedChunk) {
+			return (EncodedChunk<T>) chunk;
+		}
+		return encode(chunk, writer, reader);
+	}
+	
+	/**
+	 * Returns the length of the serialized form of the given chunk if it is encoded, to weigh chunks in a cache.
+	 * As an encoded chunk retains no other content, this is the bulk of the heap it retains.
+	 *
+	 * @param chunk chunk
+	 * @return the length in bytes, or {@code 0} if the chunk is not encoded
+	 */
+	public static long encodedLengthOf(Chunk<?> chunk) {
+		return chunk instanceof EncodedChunk ? ((EncodedChunk<?>) chunk).getEncodedLength() : 0;
+	}
+	
+	/**
+	 * Returns a read-only view of the serialized form.
+	 *
+	 * @return buffer of the serialized form
+	 */
+	public ByteBuffer getEncoded() {
+		return ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+	}
+	
+	/**
+	 * Returns the length of the serialized form.
+	 *
+	 * @return the length in bytes
+	 */
+	public int getEncodedLength() {
+		return encoded.length;
+	}
+	
+	/**
+	 * Writes the serialized form to the given channel.
+	 *
+	 * @param channel channel to write to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		ByteBuffer buffer = getEncoded();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+	
+	/**
+	 * Writes the serialized form to the given stream. The stream is not closed.
+	 *
+	 * @param out stream to write to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		out.write(encoded);
+	}
+	
+	/**
+	 * Decodes the content from the serialized form. The content is the array itself if the chunk was serialized
+	 * as an array, or the {@value ChunkSerializer#CONTENT} field if it was serialized as an object.
+	 *
+	 * @return decoded content
+	 * @throws UncheckedIOException if the serialized form cannot be decoded
+	 */
+	private List<T> decode() {
+		try {
+			JsonNode root = reader.readTree(encoded);
+			JsonNode array = root.isArray() ? root : root.path(ChunkSerializer.CONTENT);
+			if (array.isArray() == false) {
+				throw new IOException("Content is not found in the encoded chunk");
+			}
+			List<T> content = new ArrayList<>(array.size());
+			for (JsonNode element : array) {
+				content.add(reader.readValue(element));
+			}
+			return Collections.unmodifiableList(content);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	@Override
+	public Iterator<T> iterator() {
+		return decode().iterator();
+	}
+	
+	@Override
+	public int size() {
+		return size;
+	}
+	
+	@Override
+	public List<T> getContent() {
+		return decode();
+	}
+	
+	@Override
+	public Stream<T> stream() {
+		return decode().stream();
+	}
+	
+	@Override
+	public String getPaginationToken() {
+		return paginationToken;
+	}
+	
+	@Override
+	public Direction getDirection() {
+		return direction;
+	}
+	
+	@Override
+	public boolean hasContent() {
+		return size > 0;
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return nextChunkable != null;
+	}
+	
+	@Override
+	public boolean hasPrevious() {
+		return previousChunkable != null;
+	}
+	
+	@Override
+	public boolean isLast() {
+		return last;
+	}
+	
+	@Override
+	public boolean isFirst() {
+		return first;
+	}
+	
+	@Override
+	public Chunkable nextChunkable() {
+		return nextChunkable;
+	}
+	
+	@Override
+	public Chunkable previousChunkable() {
+		return previousChunkable;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>The content is decoded and mapped eagerly. The returned chunk is not encoded, and shares the navigation
+	 * state of this chunk.</p>
+	 */
+	@Override
+	public <S> Chunk<S> map(Function<? super T, ? extends S> mapper) {
+		return new DecodedChunk<>(mapContent(decode(), mapper), this);
+	}
+	
+	private static <T, S> List<S> mapContent(List<T> content, Function<? super T, ? extends S> mapper) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper must not be null!");
+		}
+		List<S> mapped = new ArrayList<>(content.size());
+		for (T element : content) {
+			mapped.add(mapper.apply(element));
+		}
+		return Collections.unmodifiableList(mapped);
+	}
+	
+	@Override
+	public Chunkable getChunkable() {
+		return chunkable;
+	}
+	
+	@Override
+	public long getFingerprint() {
+		return fingerprint;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj instanceof EncodedChunk) {
+			return Arrays.equals(encoded, ((EncodedChunk<?>) obj).encoded);
+		}
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(encoded);
+	}
+	
+	@Override
+	public String toString() {
+		return "EncodedChunk(size=" + size + ", paginationToken=" + paginationToken
+				+ ", encodedLength=" + encoded.length + ")";
+	}
+	
+	
+	/**
+	 * Decoded content of an {@link EncodedChunk} with its navigation state.
+	 *
+	 * @param <T> entity type
+	 */
+	private static class DecodedChunk<T> extends AbstractCollection<T> implements Chunk<T> {
+		
+		private final List<T> content;
+		
+		private final EncodedChunk<?> navigation;
+		
+		
+		DecodedChunk(List<T> content, EncodedChunk<?> navigation) {
+			this.content = content;
+			this.navigation = navigation;
+		}
+		
+		@Override
+		public Iterator<T> iterator() {
+			return content.iterator();
+		}
+		
+		@Override
+		public int size() {
+			return content.size();
+		}
+		
+		@Override
+		public List<T> getContent() {
+			return content;
+		}
+		
+		@Override
+		public Stream<T> stream() {
+			return content.stream();
+		}
+		
+		@Override
+		public String getPaginationToken() {
+			return navigation.getPaginationToken();
+		}
+		
+		@Override
+		public Direction getDirection() {
+			return navigation.getDirection();
+		}
+		
+		@Override
+		public boolean hasContent() {
+			return content.isEmpty() == false;
+		}
+		
+		@Override
+		public boolean hasNext() {
+			return navigation.hasNext();
+		}
+		
+		@Override
+		public boolean hasPrevious() {
+			return navigation.hasPrevious();
+		}
+		
+		@Override
+		public boolean isLast() {
+			return navigation.isLast();
+		}
+		
+		@Override
+		public boolean isFirst() {
+			return navigation.isFirst();
+		}
+		
+		@Override
+		public Chunkable nextChunkable() {
+			return navigation.nextChunkable();
+		}
+		
+		@Override
+		public Chunkable previousChunkable() {
+			return navigation.previousChunkable();
+		}
+		
+		@Override
+		public <S> Chunk<S> map(Function<? super T, ? extends S> mapper) {
+			return new DecodedChunk<>(mapContent(content, mapper), navigation);
+		}
+		
+		@Override
+		public Chunkable getChunkable() {
+			return navigation.getChunkable();
+		}
+	}
+}
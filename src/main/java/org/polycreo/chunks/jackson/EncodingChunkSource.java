@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunks.ChunkSource;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * {@link ChunkSource} decorator which serializes each fetched chunk into an {@link EncodedChunk}.
+ *
+ * <p>This is meant to be wrapped by {@link org.polycreo.chunks.CachingChunkSource}, weighing chunks by
+ * {@link EncodedChunk#encodedLengthOf(org.polycreo.chunks.Chunk)} to bound the cache in bytes, so that
+ * serialization is paid once per cached chunk instead of once per response.</p>
+ *
+ * @param <T> type of element
+ */
+public class EncodingChunkSource<T> implements ChunkSource<T> {
+	
+	private final ChunkSource<T> delegate;
+	
+	private final ObjectWriter writer;
+	
+	private final ObjectReader reader;
+	
+	
+	/**
+	 * Creates a source.
+	 *
+	 * @param delegate source to fetch chunks from
+	 * @param writer writer to serialize chunks, configured as for live responses
+	 * @param reader reader of elements to decode the content on demand, created by the mapper of the writer
+	 */
+	public EncodingChunkSource(ChunkSource<T> delegate, ObjectWriter writer, ObjectReader reader) {
+		if (delegate == null) {
+			throw new IllegalArgumentException("delegate must not be null!");
+		}
+		if (writer == null) {
+			throw new IllegalArgumentException("writer must not be null!");
+		}
+		if (reader == null) {
+			throw new IllegalArgumentException("reader must not be null!");
+		}
+		this.delegate = delegate;
+		this.writer = writer;
+		this.reader = reader;
+	}
+	
+	@Override
+	public EncodedChunk<T> findAll(Chunkable chunkable) {
+		return EncodedChunk.encode(delegate.findAll(chunkable), writer, reader);
+	}
+}
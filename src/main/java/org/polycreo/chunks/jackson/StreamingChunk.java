@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunks.Chunk;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * {@link Chunk} read from JSON, whose content is pulled from the underlying {@link JsonParser} on demand.
+ *
+ * <p>The content can be iterated only once, and only one element is held in memory at a time. The pagination
+ * token is available as soon as this object is created when it precedes the content in the JSON document
+ * (as {@link ChunkSerializer} writes). Otherwise it becomes available after the content has been consumed.</p>
+ *
+ * <p>This object must be closed to release the parser.</p>
+ *
+ * @param <T> type of element
+ * @see StreamingChunkReader
+ */
+public class StreamingChunk<T> implements Iterable<T>, Closeable {
+	
+	private final JsonParser parser;
+	
+	private final ObjectReader elementReader;
+	
+	private String paginationToken;
+	
+	private Boolean hasNext;
+	
+	private Boolean hasPrevious;
+	
+	private boolean contentStarted;
+	
+	private boolean iterated;
+	
+	
+	StreamingChunk(JsonParser parser, ObjectReader elementReader) throws IOException {
+		this.parser = parser;
+		this.elementReader = elementReader;
+		readFields();
+	}
+	
+	/**
+	 * Returns the pagination token.
+	 *
+	 * @return token, or {@literal null} if it is absent or not read yet
+	 */
+	public String getPaginationToken() {
+		return paginationToken;
+	}
+	
+	/**
+	 * Returns the {@code hasNext} flag written by the server.
+	 *
+	 * @return flag, or {@literal null} if it is absent or not read yet
+	 */
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+	
+	/**
+	 * Returns the {@code hasPrevious} flag written by the server.
+	 *
+	 * @return flag, or {@literal null} if it is absent or not read yet
+	 */
+	public Boolean getHasPrevious() {
+		return hasPrevious;
+	}
+	
+	/**
+	 * Returns the {@link Chunkable} to request the next chunk of the given request.
+	 *
+	 * @param chunkable the request which this chunk is retrieved by
+	 * @return {@link Chunkable}, or {@literal null} if the server reported there is no next chunk
+	 */
+	public Chunkable nextChunkable(Chunkable chunkable) {
+		if (Boolean.FALSE.equals(hasNext)) {
+			return null;
+		}
+		return new ChunkRequest(paginationToken, PaginationRelation.NEXT,
+				chunkable.getMaxPageSize(), chunkable.getDirection());
+	}
+	
+	/**
+	 * Returns the iterator over the content. This method can be called only once.
+	 *
+	 * @return iterator which reads an element from the parser on each step
+	 * @throws IllegalStateException if the content has been iterated already
+	 * @throws UncheckedIOException if failed to read the content while iterating
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		if (iterated) {
+			throw new IllegalStateException("Content can be iterated only once");
+		}
+		iterated = true;
+		return new ContentIterator();
+	}
+	
+	/**
+	 * Returns the sequential stream of the content, which closes this object when it is closed.
+	 *
+	 * @return stream of content
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false)
+			.onClose(() -> {
+				try {
+					close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+	}
+	
+	@Override
+	public void close() throws IOException {
+		parser.close();
+	}
+	
+	/**
+	 * Reads fields of the chunk object until the content array starts or the object ends.
+	 */
+	private void readFields() throws IOException {
+		JsonToken token = parser.nextToken();
+		while (token == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			token = parser.nextToken();
+			if (ChunkSerializer.CONTENT.equals(name) && token == JsonToken.START_ARRAY && contentStarted == false) {
+				contentStarted = true;
+				return;
+			}
+			if (ChunkSerializer.PAGINATION_TOKEN.equals(name)) {
+				paginationToken = token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+			} else if (ChunkSerializer.HAS_NEXT.equals(name)) {
+				hasNext = token.isBoolean() ? parser.getBooleanValue() : null;
+			} else if (ChunkSerializer.HAS_PREVIOUS.equals(name)) {
+				hasPrevious = token.isBoolean() ? parser.getBooleanValue() : null;
+			} else {
+				parser.skipChildren();
+			}
+			token = parser.nextToken();
+		}
+	}
+	
+	
+	private class ContentIterator implements Iterator<T> {
+		
+		private boolean ready;
+		
+		private boolean finished = contentStarted == false;
+		
+		private T next;
+		
+		
+		@Override
+		public boolean hasNext() {
+			if (ready) {
+				return true;
+			}
+			if (finished) {
+				return false;
+			}
+			try {
+				if (parser.nextToken() == JsonToken.END_ARRAY) {
+					finished = true;
+					readFields();
+					return false;
+				}
+				next = elementReader.readValue(parser);
+				ready = true;
+				return true;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		@Override
+		public T next() {
+			if (hasNext() == false) {
+				throw new NoSuchElementException();
+			}
+			ready = false;
+			T result = next;
+			next = null;
+			return result;
+		}
+	}
+}
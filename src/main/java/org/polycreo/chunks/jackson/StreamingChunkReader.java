@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+
+/**
+ * Reader of chunk JSON which exposes the content as pull-based {@link StreamingChunk}.
+ *
+ * <p>This is the client-side counterpart of {@link ChunkSerializer}. Unlike a regular deserializer, it does not
+ * build the content list, so that consumers can start processing the first element while the rest of the
+ * content is still on the wire.</p>
+ */
+public class StreamingChunkReader {
+	
+	private final ObjectMapper mapper;
+	
+	
+	/**
+	 * Creates a reader.
+	 *
+	 * @param mapper object mapper to read elements
+	 */
+	public StreamingChunkReader(ObjectMapper mapper) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper must not be null!");
+		}
+		this.mapper = mapper;
+	}
+	
+	/**
+	 * Starts reading a chunk from the given stream.
+	 *
+	 * @param <T> type of element
+	 * @param in input stream, which is closed when the returned chunk is closed
+	 * @param elementType type of element
+	 * @return streaming chunk
+	 * @throws IOException if failed to read the chunk header
+	 */
+	public <T> StreamingChunk<T> read(InputStream in, Class<T> elementType) throws IOException {
+		return read(mapper.getFactory().createParser(in), mapper.constructType(elementType));
+	}
+	
+	/**
+	 * Starts reading a chunk from the given parser, which is positioned at or before the start of the chunk object.
+	 *
+	 * @param <T> type of element
+	 * @param parser JSON parser, which is closed when the returned chunk is closed
+	 * @param elementType type of element
+	 * @return streaming chunk
+	 * @throws IOException if failed to read the chunk header
+	 */
+	public <T> StreamingChunk<T> read(JsonParser parser, JavaType elementType) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == null) {
+			token = parser.nextToken();
+		}
+		if (token != JsonToken.START_OBJECT) {
+			parser.close();
+			throw MismatchedInputException.from(parser, elementType, "Chunk must be a JSON object but " + token);
+		}
+		ObjectReader elementReader = mapper.readerFor(elementType);
+		return new StreamingChunk<>(parser, elementReader);
+	}
+}
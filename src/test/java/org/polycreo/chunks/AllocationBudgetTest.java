@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test which guards the number of bytes allocated by the operations called on every chunk.
+ *
+ * <p>The bytes are measured by {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} over many
+ * invocations after warming up, so the measurement itself is negligible per operation. The smallest of a few
+ * measurements is taken, and operations which should not allocate are allowed less than the size of the
+ * smallest object per invocation, so that one-off allocations of the JVM such as those on recompilation do not
+ * fail the test while an allocation on every invocation does. The test is skipped on JVMs which do not support
+ * the measurement.</p>
+ */
+public class AllocationBudgetTest {
+	
+	private static final int WARMUP = 20_000;
+	
+	private static final int ITERATIONS = 100_000;
+	
+	private static final int MEASUREMENTS = 3;
+	
+	/**
+	 * Budget of operations which should not allocate, which is less than the size of an object header.
+	 */
+	private static final long NO_ALLOCATION_BUDGET = 15;
+	
+	/**
+	 * Budget of {@link Chunk#nextChunkable()}, which allocates a {@link ChunkRequest} of four references.
+	 */
+	private static final long CHUNK_REQUEST_BUDGET = 48;
+	
+	private static final List<String> CONTENT = Arrays.asList("aa", "bb", "cc");
+	
+	private com.sun.management.ThreadMXBean threads;
+	
+	private ChunkImpl<String> forward =
+			ChunkImpl.wrap(CONTENT, "token", new ChunkRequest("t", PaginationRelation.NEXT, 3, Direction.ASC));
+	
+	private ChunkImpl<String> backward =
+			ChunkImpl.wrap(CONTENT, "token", new ChunkRequest("t", PaginationRelation.PREV, 3, Direction.DESC));
+	
+	private long sink;
+	
+	
+	@Before
+	public void setUp() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		if (threads.isThreadAllocatedMemoryEnabled() == false) {
+			threads.setThreadAllocatedMemoryEnabled(true);
+		}
+	}
+	
+	@Test
+	public void testNavigationDoesNotAllocate() {
+		for (ChunkImpl<String> chunk : Arrays.asList(forward, backward)) {
+			assertDoesNotAllocate(() -> sink += chunk.hasNext() ? 1 : 0);
+			assertDoesNotAllocate(() -> sink += chunk.hasPrevious() ? 1 : 0);
+			assertDoesNotAllocate(() -> sink += chunk.isLast() ? 1 : 0);
+			assertDoesNotAllocate(() -> sink += chunk.isFirst() ? 1 : 0);
+		}
+	}
+	
+	@Test
+	public void testNextChunkableAllocatesOnlyRequest() {
+		assertThat(allocatedBytesPerOp(() -> sink += forward.nextChunkable().getMaxPageSize()))
+			.isLessThanOrEqualTo(CHUNK_REQUEST_BUDGET);
+		assertThat(allocatedBytesPerOp(() -> sink += backward.previousChunkable().getMaxPageSize()))
+			.isLessThanOrEqualTo(CHUNK_REQUEST_BUDGET);
+	}
+	
+	@Test
+	public void testForEachDoesNotAllocate() {
+		Consumer<String> action = s -> sink += s.length();
+		assertDoesNotAllocate(() -> forward.forEach(action));
+	}
+	
+	@Test
+	public void testEmptyChunkDoesNotAllocate() {
+		assertDoesNotAllocate(() -> {
+			Chunk<String> empty = Chunks.emptyChunk();
+			sink += empty.hasNext() || empty.hasPrevious() ? 1 : empty.size();
+		});
+		Chunk<String> empty = Chunks.emptyChunk();
+		assertThat(empty.hasNext()).isFalse();
+		assertThat(empty.hasPrevious()).isFalse();
+		assertThat(empty.isFirst()).isTrue();
+		assertThat(empty.isLast()).isTrue();
+		assertThat(empty.nextChunkable()).isNull();
+	}
+	
+	private void assertDoesNotAllocate(Runnable operation) {
+		assertThat(allocatedBytesPerOp(operation)).isLessThanOrEqualTo(NO_ALLOCATION_BUDGET);
+	}
+	
+	private long allocatedBytesPerOp(Runnable operation) {
+		for (int i = 0; i < WARMUP; i++) {
+			operation.run();
+		}
+		long threadId = Thread.currentThread().getId();
+		long min = Long.MAX_VALUE;
+		for (int m = 0; m < MEASUREMENTS; m++) {
+			long before = threads.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < ITERATIONS; i++) {
+				operation.run();
+			}
+			long after = threads.getThreadAllocatedBytes(threadId);
+			min = Math.min(min, (after - before) / ITERATIONS);
+		}
+		return min;
+	}
+}
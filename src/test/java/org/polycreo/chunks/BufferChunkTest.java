@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Value;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link BufferChunk}.
+ */
+public class BufferChunkTest {
+	
+	private static final FixedWidthCodec<Reading> CODEC = new ReadingCodec();
+	
+	
+	@Test
+	public void testElementsAreDecodedFromBuffer() {
+		BufferChunk<Reading> chunk = BufferChunk.wrap(encode(3), CODEC, "token", new ChunkRequest(3, Direction.ASC));
+		assertThat(chunk.getContent()).containsExactly(new Reading(0, 1000, 0.5), new Reading(1, 1001, 1.5),
+				new Reading(2, 1002, 2.5));
+		assertThat(chunk.getPaginationToken()).isEqualTo("token");
+		assertThat(chunk.isLast()).isFalse();
+		assertThat(chunk.getRecordSize()).isEqualTo(24);
+		assertThat(chunk.getRecordOffset(2)).isEqualTo(48);
+	}
+	
+	@Test
+	public void testFlyweightAccess() {
+		BufferChunk<Reading> chunk = BufferChunk.wrap(encode(100), CODEC, null, null);
+		AtomicLong sum = new AtomicLong();
+		chunk.forEachRecord((buffer, offset) -> sum.addAndGet(buffer.getLong(offset)));
+		assertThat(sum).hasValue(4950);
+		assertThat(chunk.getBuffer().getLong(chunk.getRecordOffset(99) + 8)).isEqualTo(1099);
+		assertThat(chunk.getBuffer().isReadOnly()).isTrue();
+	}
+	
+	@Test
+	public void testLittleEndianBuffer() {
+		ByteBuffer buffer = encode(3, ByteOrder.LITTLE_ENDIAN);
+		BufferChunk<Reading> chunk = BufferChunk.wrap(buffer, CODEC, null, null);
+		assertThat(chunk.getContent()).containsExactly(new Reading(0, 1000, 0.5), new Reading(1, 1001, 1.5),
+				new Reading(2, 1002, 2.5));
+		assertThat(chunk.getBuffer().order()).isEqualTo(ByteOrder.LITTLE_ENDIAN);
+		assertThat(chunk.getBuffer().getLong(chunk.getRecordOffset(2) + 8)).isEqualTo(1002);
+		assertThat(buffer.order()).isEqualTo(ByteOrder.LITTLE_ENDIAN);
+	}
+	
+	@Test
+	public void testWriteTo() throws IOException {
+		ByteBuffer buffer = encode(5);
+		BufferChunk<Reading> chunk = BufferChunk.wrap(buffer, CODEC, null, null);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		chunk.writeTo(Channels.newChannel(out));
+		chunk.writeTo(Channels.newChannel(out));
+		assertThat(out.size()).isEqualTo(240);
+		assertThat(ByteBuffer.wrap(out.toByteArray(), 120, 120)).isEqualTo(buffer);
+	}
+	
+	@Test
+	public void testMap() {
+		BufferChunk<Reading> chunk = BufferChunk.wrap(encode(3), CODEC, null, null);
+		assertThat(chunk.map(Reading::getId)).containsExactly(0L, 1L, 2L);
+	}
+	
+	@Test
+	public void testFactoryComputesTokenFromBoundaryRecords() {
+		SimplePaginationTokenEncoder encoder = new SimplePaginationTokenEncoder();
+		ChunkFactory factory = new ChunkFactory(e -> ((Reading) e).getId(), encoder);
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 10, Direction.ASC);
+		BufferChunk<Reading> chunk = factory.createChunk(encode(10), CODEC, request);
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode(0L, 9L));
+		assertThat(chunk.hasNext()).isTrue();
+		
+		BufferChunk<Reading> empty = factory.createChunk(encode(0), CODEC, request);
+		assertThat(empty.hasContent()).isFalse();
+		assertThat(empty.getPaginationToken()).isNull();
+	}
+	
+	@Test
+	public void testPartialRecordIsRejected() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(30);
+		assertThatThrownBy(() -> BufferChunk.wrap(buffer, CODEC, null, null))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+	
+	private static ByteBuffer encode(int count) {
+		return encode(count, ByteOrder.BIG_ENDIAN);
+	}
+	
+	private static ByteBuffer encode(int count, ByteOrder order) {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(count * CODEC.getRecordSize()).order(order);
+		for (int i = 0; i < count; i++) {
+			CODEC.encode(new Reading(i, 1000 + i, i + 0.5), buffer, i * CODEC.getRecordSize());
+		}
+		return buffer;
+	}
+	
+	
+	@Value
+	private static class Reading {
+		
+		private long id;
+		
+		private long timestamp;
+		
+		private double value;
+	}
+	
+	private static class ReadingCodec implements FixedWidthCodec<Reading> {
+		
+		@Override
+		public int getRecordSize() {
+			return 24;
+		}
+		
+		@Override
+		public Reading decode(ByteBuffer buffer, int offset) {
+			return new Reading(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getDouble(offset + 16));
+		}
+		
+		@Override
+		public void encode(Reading record, ByteBuffer buffer, int offset) {
+			buffer.putLong(offset, record.getId());
+			buffer.putLong(offset + 8, record.getTimestamp());
+			buffer.putDouble(offset + 16, record.getValue());
+		}
+	}
+}
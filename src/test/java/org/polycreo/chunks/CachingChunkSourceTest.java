@@ -0,0 +1,237 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test for {@link CachingChunkSource}.
+ */
+public class CachingChunkSourceTest {
+	
+	private NavigableChunkSource<String, String> data =
+			new NavigableChunkSource<>(Function.identity(), Function.identity());
+	
+	private AtomicInteger fetches = new AtomicInteger();
+	
+	private ChunkSource<String> counting = c -> {
+		fetches.incrementAndGet();
+		return data.findAll(c);
+	};
+	
+	private AtomicLong ticker = new AtomicLong();
+	
+	
+	@Before
+	public void setUp() {
+		data.putAll(ExampleRepository.DATA);
+	}
+	
+	@Test
+	public void testEqualRequestsHitCache() {
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 100, null);
+		Chunk<String> first = cache.findAll(new ChunkRequest(5, Direction.ASC));
+		assertThat(cache.findAll(new ChunkRequest(5, Direction.ASC))).isSameAs(first);
+		Chunk<String> second = cache.findAll(first.nextChunkable());
+		assertThat(cache.findAll(first.nextChunkable())).isSameAs(second);
+		cache.findAll(new ChunkRequest(5, Direction.DESC));
+		cache.findAll(new ChunkRequest(6, Direction.ASC));
+		assertThat(fetches).hasValue(4);
+		assertThat(cache.size()).isEqualTo(4);
+	}
+	
+	@Test
+	public void testConcurrentMissesShareOneFetch() throws Exception {
+		int callers = 8;
+		CountDownLatch arrived = new CountDownLatch(callers);
+		CachingChunkSource<String> cache = new CachingChunkSource<>(c -> {
+			fetches.incrementAndGet();
+			try {
+				// hold the fetch until every caller has at least started to look the request up
+				arrived.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return data.findAll(c);
+		}, 100, null);
+		ExecutorService executor = Executors.newFixedThreadPool(callers);
+		try {
+			List<Future<Chunk<String>>> futures = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				futures.add(executor.submit(() -> {
+					arrived.countDown();
+					return cache.findAll(new ChunkRequest(5, Direction.ASC));
+				}));
+			}
+			// callers either share the fetch in flight or hit the chunk it cached
+			Chunk<String> expected = futures.get(0).get(10, TimeUnit.SECONDS);
+			for (Future<Chunk<String>> future : futures) {
+				assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(expected);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(fetches).hasValue(1);
+	}
+	
+	@Test
+	public void testSizeBoundedEviction() {
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 16, null);
+		for (int size = 1; size <= 64; size++) {
+			cache.findAll(new ChunkRequest(size, Direction.ASC));
+		}
+		assertThat(cache.size()).isEqualTo(16);
+	}
+	
+	@Test
+	public void testSizeBoundSmallerThanSegments() {
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 3, null);
+		for (int size = 1; size <= 10; size++) {
+			cache.findAll(new ChunkRequest(size, Direction.ASC));
+			assertThat(cache.size()).isLessThanOrEqualTo(3);
+		}
+		int before = fetches.get();
+		cache.findAll(new ChunkRequest(10, Direction.ASC));
+		assertThat(fetches).hasValue(before);
+	}
+	
+	@Test
+	public void testWeightBoundedEviction() {
+		// bounded by the total weight, so a chunk may weigh up to all of it
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 1000, 30, Chunk::size, null);
+		cache.findAll(new ChunkRequest(26, Direction.ASC));
+		assertThat(cache.size()).isEqualTo(1);
+		cache.findAll(new ChunkRequest(26, Direction.ASC));
+		assertThat(fetches).hasValue(1);
+		
+		cache.findAll(new ChunkRequest(10, Direction.ASC));
+		assertThat(cache.size()).isEqualTo(1);
+		cache.findAll(new ChunkRequest(10, Direction.ASC));
+		assertThat(fetches).hasValue(2);
+		
+		for (int size = 1; size <= 5; size++) {
+			cache.findAll(new ChunkRequest(size, Direction.DESC));
+		}
+		assertThat(cache.size()).isEqualTo(6);
+	}
+	
+	@Test
+	public void testChunkHeavierThanMaximumWeightIsNotCached() {
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 1000, 20, Chunk::size, null);
+		cache.findAll(new ChunkRequest(26, Direction.ASC));
+		cache.findAll(new ChunkRequest(26, Direction.ASC));
+		assertThat(cache.size()).isZero();
+		assertThat(fetches).hasValue(2);
+	}
+	
+	@Test
+	public void testEntriesExpire() {
+		CachingChunkSource<String> cache =
+				new CachingChunkSource<>(counting, 100, Long.MAX_VALUE, c -> 0, Duration.ofSeconds(1), ticker::get);
+		cache.findAll(new ChunkRequest(5, Direction.ASC));
+		ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+		cache.findAll(new ChunkRequest(5, Direction.ASC));
+		assertThat(fetches).hasValue(1);
+		ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+		cache.findAll(new ChunkRequest(5, Direction.ASC));
+		assertThat(fetches).hasValue(2);
+	}
+	
+	@Test
+	public void testInvalidate() {
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 100, null);
+		cache.findAll(new ChunkRequest(5, Direction.ASC));
+		cache.findAll(new ChunkRequest(5, Direction.DESC));
+		cache.invalidate(new ChunkRequest(5, Direction.ASC));
+		assertThat(cache.size()).isEqualTo(1);
+		cache.invalidateIf(c -> c.getDirection() == Direction.DESC);
+		assertThat(cache.size()).isZero();
+		cache.findAll(new ChunkRequest(5, Direction.ASC));
+		cache.invalidateAll();
+		assertThat(cache.size()).isZero();
+	}
+	
+	@Test
+	public void testKeysetInvalidation() {
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 100, null);
+		KeysetInvalidator<String, String> invalidator =
+				new KeysetInvalidator<>(Function.identity(), Function.identity());
+		
+		Chunkable ascFirst = new ChunkRequest(5, Direction.ASC);
+		Chunkable ascSecond = cache.findAll(ascFirst).nextChunkable();
+		Chunk<String> ascSecondChunk = cache.findAll(ascSecond);
+		Chunkable ascBack = ascSecondChunk.previousChunkable();
+		cache.findAll(ascBack);
+		Chunkable descFirst = new ChunkRequest(5, Direction.DESC);
+		Chunkable descLast = new ChunkRequest(30, Direction.DESC);
+		cache.findAll(descFirst);
+		cache.findAll(descLast);
+		assertThat(cache.size()).isEqualTo(5);
+		
+		// "cd" falls in the first ASC page only, besides pages open to the end
+		data.put("cd");
+		cache.invalidateIf(invalidator.affectedBy("cd"));
+		List<Chunkable> remaining = new ArrayList<>();
+		for (Chunkable c : new Chunkable[] {
+			ascFirst,
+			ascSecond,
+			ascBack,
+			descFirst,
+			descLast
+		}) {
+			int before = fetches.get();
+			cache.findAll(c);
+			if (fetches.get() == before) {
+				remaining.add(c);
+			}
+		}
+		assertThat(remaining).containsExactly(ascSecond, descFirst);
+	}
+	
+	@Test
+	public void testConditionalFetch() {
+		CachingChunkSource<String> cache = new CachingChunkSource<>(counting, 100, null);
+		Chunkable request = new ChunkRequest(5, Direction.ASC);
+		Chunk<String> chunk = cache.findAllIfNoneMatch(request, null);
+		String etag = Chunks.etag(chunk);
+		assertThat(cache.findAllIfNoneMatch(request, etag)).isNull();
+		assertThat(cache.findAllIfNoneMatch(request, "W/\"0\"")).isSameAs(chunk);
+		
+		data.put("ab");
+		cache.invalidateAll();
+		Chunk<String> modified = cache.findAllIfNoneMatch(request, etag);
+		assertThat(modified).containsExactly("aa", "ab", "bb", "cc", "dd");
+		assertThat(fetches).hasValue(2);
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test for {@link ChunkEvents}, which runs with or without the Flight Recorder.
+ */
+public class ChunkEventsTest {
+	
+	@After
+	public void tearDown() {
+		ChunkEvents.setSizeEstimator(null);
+	}
+	
+	@Test
+	public void testEventsDisabledByDefault() {
+		assertThat(ChunkEvents.beginFetch()).isNull();
+		assertThat(ChunkEvents.beginToken()).isNull();
+		assertThat(ChunkEvents.beginSerialize()).isNull();
+		
+		// committing a disabled event is a no-op
+		ChunkEvents.commitFetch(null, null, Chunks.emptyChunk());
+		ChunkEvents.commitToken(null, true, null);
+		ChunkEvents.commitSerialize(null, Chunks.emptyChunk());
+	}
+	
+	@Test
+	public void testEstimateBytes() {
+		assertThat(ChunkEvents.estimateBytes(LongChunk.wrap(new long[3], null, null))).isEqualTo(24);
+		assertThat(ChunkEvents.estimateBytes(IntChunk.wrap(new int[3], null, null))).isEqualTo(12);
+		
+		ChunkImpl<String> chunk = ChunkImpl.wrap(Arrays.asList("a", "bb", "ccc"), null,
+				new ChunkRequest(3, Direction.ASC));
+		assertThat(ChunkEvents.estimateBytes(chunk)).isZero();
+		ChunkEvents.setSizeEstimator(e -> ((String) e).length());
+		assertThat(ChunkEvents.estimateBytes(chunk)).isEqualTo(6);
+		
+		// exact sizes are not overridden by the estimator
+		assertThat(ChunkEvents.estimateBytes(LongChunk.wrap(new long[3], null, null))).isEqualTo(24);
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.PaginationTokenEncoder;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link ChunkFactory}.
+ */
+public class ChunkFactoryTest {
+	
+	private AtomicInteger extractions = new AtomicInteger();
+	
+	private Function<Object, Serializable> idExtractor = e -> {
+		extractions.incrementAndGet();
+		return (Serializable) e;
+	};
+	
+	private PaginationTokenEncoder encoder = new SimplePaginationTokenEncoder();
+	
+	private ChunkFactory factory = new ChunkFactory(idExtractor, encoder);
+	
+	
+	@Test
+	public void testTokenIsComputedOnFirstAccess() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 3, Direction.ASC);
+		Chunk<String> chunk = factory.createChunk(Arrays.asList("aa", "bb", "cc"), request);
+		assertThat(chunk.getContent()).containsExactly("aa", "bb", "cc");
+		assertThat(chunk.hasNext()).isTrue();
+		assertThat(extractions).hasValue(0);
+		
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode("aa", "cc"));
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode("aa", "cc"));
+		assertThat(chunk.nextChunkable().getPaginationToken()).isEqualTo(encoder.encode("aa", "cc"));
+		assertThat(extractions).hasValue(2);
+	}
+	
+	@Test
+	public void testFirstKeyIsOmittedForFirstChunk() {
+		Chunk<String> chunk = factory.createChunk(Arrays.asList("aa", "bb"), new ChunkRequest(3, Direction.ASC));
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode(null, "bb"));
+		assertThat(extractions).hasValue(1);
+	}
+	
+	@Test
+	public void testCreateChunkCopiesContent() {
+		List<String> content = new ArrayList<>(Arrays.asList("aa", "bb"));
+		Chunk<String> chunk = factory.createChunk(content, new ChunkRequest(3, Direction.ASC));
+		content.set(1, "zz");
+		content.add("cc");
+		assertThat(chunk.getContent()).containsExactly("aa", "bb");
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode(null, "bb"));
+	}
+	
+	@Test
+	public void testWrapChunkAdoptsContent() {
+		List<String> content = new ArrayList<>(Arrays.asList("aa", "bb"));
+		Chunk<String> chunk = factory.wrapChunk(content, new ChunkRequest(3, Direction.ASC));
+		assertThat(chunk.getContent()).containsExactly("aa", "bb");
+		assertThat(extractions).hasValue(0);
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode(null, "bb"));
+		assertThat(factory.wrapChunk(Collections.emptyList(), null).getPaginationToken()).isNull();
+	}
+	
+	@Test
+	public void testEmptyContentHasNoToken() {
+		Chunk<String> chunk = factory.createChunk(Collections.emptyList(), new ChunkRequest(3, Direction.ASC));
+		assertThat(chunk.getPaginationToken()).isNull();
+		assertThat(extractions).hasValue(0);
+	}
+	
+	@Test
+	public void testTokenIsComputedOnceUnderConcurrentAccess() throws Exception {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 3, Direction.ASC);
+		Chunk<String> chunk = factory.createChunk(Arrays.asList("aa", "bb", "cc"), request);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<String>> tasks = new ArrayList<>();
+			for (int i = 0; i < 64; i++) {
+				tasks.add(chunk::getPaginationToken);
+			}
+			for (Future<String> future : executor.invokeAll(tasks)) {
+				assertThat(future.get()).isEqualTo(encoder.encode("aa", "cc"));
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertThat(extractions).hasValue(2);
+	}
+	
+	@Test
+	public void testLookaheadRowIsTrimmed() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 2, Direction.ASC);
+		Chunk<String> chunk = factory.createChunkWithLookahead(Arrays.asList("aa", "bb", "cc"), request);
+		assertThat(chunk.getContent()).containsExactly("aa", "bb");
+		assertThat(chunk.isLast()).isFalse();
+		assertThat(chunk.hasNext()).isTrue();
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode("aa", "bb"));
+	}
+	
+	@Test
+	public void testLookaheadWithoutExtraRowIsLast() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 2, Direction.ASC);
+		Chunk<String> chunk = factory.createChunkWithLookahead(Arrays.asList("aa", "bb"), request);
+		assertThat(chunk.getContent()).containsExactly("aa", "bb");
+		assertThat(chunk.isLast()).isTrue();
+		assertThat(chunk.hasNext()).isFalse();
+		assertThat(chunk.nextChunkable()).isNull();
+	}
+	
+	@Test
+	public void testLookaheadRowIsTrimmedFromHeadForPrev() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.PREV, 2, Direction.ASC);
+		Chunk<String> chunk = factory.createChunkWithLookahead(Arrays.asList("aa", "bb", "cc"), request);
+		assertThat(chunk.getContent()).containsExactly("bb", "cc");
+		assertThat(chunk.hasPrevious()).isTrue();
+		assertThat(chunk.hasNext()).isTrue();
+		
+		chunk = factory.createChunkWithLookahead(Arrays.asList("aa", "bb"), request);
+		assertThat(chunk.getContent()).containsExactly("aa", "bb");
+		assertThat(chunk.hasPrevious()).isFalse();
+		assertThat(chunk.previousChunkable()).isNull();
+	}
+	
+	@Test
+	public void testByteBudgetTruncatesContent() {
+		List<String> content = Arrays.asList("a", "bbbb", "cc", "d");
+		Chunkable request = new ChunkRequest(4, Direction.ASC);
+		Chunk<String> chunk = factory.createChunk(content, request, String::length, 6);
+		assertThat(chunk.getContent()).containsExactly("a", "bbbb");
+		assertThat(chunk.hasNext()).isTrue();
+		assertThat(encoder.extractLastKey(chunk.getPaginationToken())).hasValue("bbbb");
+		
+		chunk = factory.createChunk(content, request, String::length, 100);
+		assertThat(chunk.getContent()).isEqualTo(content);
+		assertThat(chunk.hasNext()).isTrue(); // inferred from the page size
+	}
+	
+	@Test
+	public void testByteBudgetKeepsOneElement() {
+		Chunk<String> chunk = factory.createChunk(Arrays.asList("aaaaaaaa", "b"), new ChunkRequest(2, Direction.ASC),
+				String::length, 4);
+		assertThat(chunk.getContent()).containsExactly("aaaaaaaa");
+		assertThat(chunk.hasNext()).isTrue();
+	}
+	
+	@Test
+	public void testByteBudgetTruncatesFromHeadForPrev() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.PREV, 3, Direction.ASC);
+		Chunk<String> chunk = factory.createChunk(Arrays.asList("aaa", "bb", "c"), request, String::length, 3);
+		assertThat(chunk.getContent()).containsExactly("bb", "c");
+		assertThat(chunk.hasPrevious()).isTrue();
+		assertThat(encoder.extractFirstKey(chunk.getPaginationToken())).hasValue("bb");
+	}
+	
+	@Test
+	public void testLookaheadLimit() {
+		assertThat(ChunkFactory.lookaheadLimit(new ChunkRequest(10, Direction.ASC))).isEqualTo(11);
+		assertThat(ChunkFactory.lookaheadLimit(new ChunkRequest(Integer.MAX_VALUE, Direction.ASC)))
+			.isEqualTo(Integer.MAX_VALUE);
+		assertThat(ChunkFactory.lookaheadLimit(new ChunkRequest(null, Direction.ASC))).isNull();
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test for {@link ChunkImpl}.
+ */
+public class ChunkImplTest {
+	
+	private Chunkable request = new ChunkRequest(5, Direction.ASC);
+	
+	
+	@Test
+	public void testConstructorCopiesContent() {
+		List<String> content = new ArrayList<>(Arrays.asList("aa", "bb"));
+		ChunkImpl<String> chunk = new ChunkImpl<>(content, "token", request);
+		content.add("cc");
+		assertThat(chunk.getContent()).containsExactly("aa", "bb");
+	}
+	
+	@Test
+	public void testWrapAdoptsContent() {
+		List<String> content = new ArrayList<>(Arrays.asList("aa", "bb"));
+		ChunkImpl<String> chunk = ChunkImpl.wrap(content, "token", request);
+		content.add("cc");
+		assertThat(chunk.getContent()).containsExactly("aa", "bb", "cc");
+		assertThat(chunk.getPaginationToken()).isEqualTo("token");
+		assertThat(chunk).isEqualTo(new ChunkImpl<>(content, "token", request));
+	}
+	
+	@Test
+	public void testContentIsUnmodifiable() {
+		ChunkImpl<String> chunk = ChunkImpl.wrap(new ArrayList<>(Arrays.asList("aa", "bb")), "token", request);
+		assertThatThrownBy(() -> chunk.getContent().add("cc")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> {
+			chunk.iterator().next();
+			chunk.iterator().remove();
+		}).isInstanceOf(UnsupportedOperationException.class);
+	}
+	
+	@Test
+	public void testSubChunk() {
+		ChunkImpl<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bb", "cc", "dd", "ee"), "token", request);
+		ChunkImpl<String> sub = chunk.subChunk(1, 3);
+		assertThat(sub.getContent()).containsExactly("bb", "cc");
+		
+		// the token of the chunk would skip "dd" and "ee", so the view cannot be navigated from
+		assertThat(chunk.hasNext()).isTrue();
+		assertThat(sub.getPaginationToken()).isNull();
+		assertThat(sub.getChunkable()).isNull();
+		assertThat(sub.isFirst()).isTrue();
+		assertThat(sub.isLast()).isTrue();
+		assertThat(sub.hasNext()).isFalse();
+		assertThat(sub.hasPrevious()).isFalse();
+		assertThat(sub.nextChunkable()).isNull();
+		assertThat(sub.previousChunkable()).isNull();
+		assertThatThrownBy(() -> chunk.subChunk(3, 6)).isInstanceOf(IndexOutOfBoundsException.class);
+	}
+	
+	@Test
+	public void testReversed() {
+		ChunkImpl<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bb", "cc"), "token", request);
+		ChunkImpl<String> reversed = chunk.reversed();
+		assertThat(reversed.getContent()).containsExactly("cc", "bb", "aa");
+		assertThat(reversed.stream()).containsExactly("cc", "bb", "aa");
+		assertThat(reversed.getContent().get(0)).isEqualTo("cc");
+		assertThat(reversed.getPaginationToken()).isEqualTo("token");
+		assertThat(reversed.isLast()).isTrue();
+		assertThat(reversed.reversed().getContent()).containsExactly("aa", "bb", "cc");
+	}
+	
+	@Test
+	public void testReversedList() {
+		List<String> list = Arrays.asList("aa", "bb", "cc");
+		List<String> reversed = Chunks.reversed(list);
+		assertThat(reversed).containsExactly("cc", "bb", "aa");
+		assertThat(Chunks.reversed(reversed)).isSameAs(list);
+		assertThatThrownBy(() -> reversed.get(3)).isInstanceOf(IndexOutOfBoundsException.class);
+		assertThatThrownBy(() -> reversed.set(0, "zz")).isInstanceOf(UnsupportedOperationException.class);
+	}
+	
+	@Test
+	public void testMapIsLazyAndMemoized() {
+		AtomicInteger calls = new AtomicInteger();
+		ChunkImpl<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bb", "cc"), "token", request);
+		Chunk<Integer> mapped = chunk.map(s -> {
+			calls.incrementAndGet();
+			return s.length();
+		});
+		assertThat(calls).hasValue(0);
+		assertThat(mapped.size()).isEqualTo(3);
+		assertThat(mapped.getContent().get(1)).isEqualTo(2);
+		assertThat(calls).hasValue(1);
+		assertThat(mapped.getContent()).containsExactly(2, 2, 2);
+		assertThat(mapped.stream()).containsExactly(2, 2, 2);
+		assertThat(calls).hasValue(3);
+	}
+	
+	@Test
+	public void testMapFusesConsecutiveMappers() {
+		AtomicInteger first = new AtomicInteger();
+		AtomicInteger second = new AtomicInteger();
+		ChunkImpl<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bbb", "cccc"), "token", request);
+		Chunk<String> mapped = chunk
+			.map(s -> {
+				first.incrementAndGet();
+				return s.length();
+			})
+			.map(i -> {
+				second.incrementAndGet();
+				return i * 2;
+			})
+			.map(String::valueOf);
+		assertThat(mapped.getContent()).containsExactly("4", "6", "8");
+		assertThat(mapped.getContent()).containsExactly("4", "6", "8");
+		assertThat(first).hasValue(3);
+		assertThat(second).hasValue(3);
+		assertThat(mapped.getPaginationToken()).isEqualTo("token");
+		assertThat(mapped.getChunkable()).isSameAs(request);
+		assertThat(mapped.isLast()).isTrue();
+	}
+	
+	@Test
+	public void testMapAllowsNullResults() {
+		ChunkImpl<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bb"), "token", request);
+		Chunk<String> mapped = chunk.map(s -> "aa".equals(s) ? null : s);
+		assertThat(mapped.getContent()).containsExactly(null, "bb");
+		assertThat(mapped.getContent()).containsExactly(null, "bb");
+	}
+	
+	@Test
+	public void testFingerprintAndEquality() {
+		ChunkImpl<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bb"), "token", request);
+		ChunkImpl<String> same = new ChunkImpl<>(Arrays.asList("aa", "bb"), "token", new ChunkRequest(2, Direction.ASC));
+		assertThat(chunk.getFingerprint()).isEqualTo(same.getFingerprint());
+		assertThat(chunk).isEqualTo(same).hasSameHashCodeAs(same);
+		assertThat(Chunks.etag(chunk)).isEqualTo(Chunks.etag(same)).matches("W/\"[0-9a-f]{16}\"");
+		
+		ChunkImpl<String> reordered = ChunkImpl.wrap(Arrays.asList("bb", "aa"), "token", request);
+		assertThat(reordered).isNotEqualTo(chunk);
+		assertThat(reordered.getFingerprint()).isNotEqualTo(chunk.getFingerprint());
+		ChunkImpl<String> otherToken = ChunkImpl.wrap(Arrays.asList("aa", "bb"), "other", request);
+		assertThat(otherToken).isNotEqualTo(chunk);
+		assertThat(otherToken.getFingerprint()).isNotEqualTo(chunk.getFingerprint());
+		assertThat(ChunkImpl.wrap(Arrays.asList("aa", "bb", null), "token", request)).isNotEqualTo(chunk);
+	}
+	
+	@Test
+	public void testFingerprintIsComputedOnce() {
+		AtomicInteger hashes = new AtomicInteger();
+		Object element = new Object() {
+			
+			@Override
+			public int hashCode() {
+				hashes.incrementAndGet();
+				return 42;
+			}
+		};
+		ChunkImpl<Object> chunk = ChunkImpl.wrap(Arrays.asList(element), "token", request);
+		long fingerprint = chunk.getFingerprint();
+		assertThat(chunk.getFingerprint()).isEqualTo(fingerprint);
+		assertThat(chunk.hashCode()).isEqualTo(chunk.hashCode());
+		assertThat(hashes).hasValue(1);
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test for {@link ChunkIterator}.
+ */
+public class ChunkIteratorTest {
+	
+	private ExampleRepository repo = new ExampleRepository();
+	
+	private ExecutorService executor = Executors.newFixedThreadPool(2);
+	
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void testIterateAllASC() {
+		List<String> actual = new ArrayList<>();
+		Chunks.iterateAll(repo::findAll, new ChunkRequest(10, Direction.ASC)).forEachRemaining(actual::add);
+		assertThat(actual).isEqualTo(ExampleRepository.DATA);
+	}
+	
+	@Test
+	public void testStreamAllDESCWithPrefetch() {
+		try (Stream<String> stream =
+				Chunks.streamAll(repo::findAll, new ChunkRequest(10, Direction.DESC), executor, 2)) {
+			List<String> actual = stream.collect(Collectors.toList());
+			assertThat(actual).hasSize(26).startsWith("zz", "yy").endsWith("bb", "aa");
+		}
+	}
+	
+	@Test
+	public void testExactMultipleEndsWithEmptyChunk() {
+		AtomicInteger fetches = new AtomicInteger();
+		ChunkSource<String> source = c -> {
+			fetches.incrementAndGet();
+			return repo.findAll(c);
+		};
+		assertThat(Chunks.streamAll(source, new ChunkRequest(13, Direction.ASC)).count()).isEqualTo(26);
+		assertThat(fetches).hasValue(3);
+	}
+	
+	@Test
+	public void testExactMultipleWithLookaheadSkipsEmptyChunk() {
+		ExampleRepository lookaheadRepo = new ExampleRepository(true);
+		AtomicInteger fetches = new AtomicInteger();
+		ChunkSource<String> source = c -> {
+			fetches.incrementAndGet();
+			return lookaheadRepo.findAll(c);
+		};
+		assertThat(Chunks.streamAll(source, new ChunkRequest(13, Direction.DESC))).hasSize(26);
+		assertThat(fetches).hasValue(2);
+	}
+	
+	@Test
+	public void testLookaheadWithoutPageSizeUsesDefault() {
+		ExampleRepository lookaheadRepo = new ExampleRepository(true);
+		Chunk<String> chunk = lookaheadRepo.findAll(new ChunkRequest(null, Direction.ASC));
+		assertThat(chunk.getContent()).isEqualTo(repo.findAll(new ChunkRequest(null, Direction.ASC)).getContent());
+		assertThat(chunk.getContent()).hasSize(20);
+		assertThat(chunk.isLast()).isFalse();
+		assertThat(Chunks.streamAll(lookaheadRepo, new ChunkRequest(null, Direction.ASC))).hasSize(26);
+	}
+	
+	@Test
+	public void testNextChunkIsFetchedWhileCurrentIsConsumed() throws Exception {
+		CountDownLatch secondFetched = new CountDownLatch(1);
+		AtomicInteger fetches = new AtomicInteger();
+		ChunkSource<String> source = c -> {
+			if (fetches.incrementAndGet() == 2) {
+				secondFetched.countDown();
+			}
+			return repo.findAll(c);
+		};
+		try (ChunkIterator<String> iterator = Chunks.iterateAll(source, new ChunkRequest(10, Direction.ASC),
+				executor, 1)) {
+			assertThat(iterator.next()).isEqualTo("aa");
+			assertThat(secondFetched.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(fetches).hasValue(2);
+		}
+	}
+	
+	@Test
+	public void testFetchFailureIsPropagated() {
+		ChunkSource<String> source = c -> {
+			if (c.getPaginationToken() != null) {
+				throw new IllegalStateException("failure");
+			}
+			return repo.findAll(c);
+		};
+		ChunkIterator<String> iterator = Chunks.iterateAll(source, new ChunkRequest(10, Direction.ASC), executor, 3);
+		for (int i = 0; i < 10; i++) {
+			iterator.next();
+		}
+		assertThatThrownBy(iterator::hasNext).isInstanceOf(IllegalStateException.class).hasMessage("failure");
+	}
+	
+	@Test
+	public void testClose() {
+		ChunkIterator<String> iterator = Chunks.iterateAll(repo::findAll, new ChunkRequest(10, Direction.ASC),
+				executor, 2);
+		assertThat(iterator.next()).isEqualTo("aa");
+		iterator.close();
+		assertThat(iterator.hasNext()).isFalse();
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Direction;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Test for chunk publishers, along the lines of the reactive streams TCK rules.
+ */
+public class ChunkPublisherTest {
+	
+	private static final Executor DIRECT = Runnable::run;
+	
+	private ExampleRepository repo = new ExampleRepository();
+	
+	private AtomicInteger fetches = new AtomicInteger();
+	
+	private ChunkSource<String> source = c -> {
+		fetches.incrementAndGet();
+		return repo.findAll(c);
+	};
+	
+	private ExecutorService executor = Executors.newSingleThreadExecutor();
+	
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void testPublishChunks() {
+		TestSubscriber<Chunk<String>> subscriber = new TestSubscriber<>();
+		Chunks.publishChunks(source, new ChunkRequest(10, Direction.ASC), DIRECT).subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		
+		assertThat(subscriber.items).hasSize(3);
+		assertThat(subscriber.items.get(2).getContent()).containsExactly("uu", "vv", "ww", "xx", "yy", "zz");
+		assertThat(subscriber.completed).isTrue();
+		assertThat(fetches).hasValue(3);
+	}
+	
+	@Test
+	public void testChunksAreFetchedOnDemand() {
+		TestSubscriber<Chunk<String>> subscriber = new TestSubscriber<>();
+		Chunks.publishChunks(source, new ChunkRequest(10, Direction.DESC), DIRECT).subscribe(subscriber);
+		assertThat(fetches).hasValue(0);
+		
+		subscriber.subscription.request(1);
+		assertThat(subscriber.items).hasSize(1);
+		assertThat(fetches).hasValue(1);
+		
+		subscriber.subscription.request(1);
+		assertThat(subscriber.items).hasSize(2);
+		assertThat(fetches).hasValue(2);
+		assertThat(subscriber.completed).isFalse();
+	}
+	
+	@Test
+	public void testPublishAllFetchesOnlyRequiredChunks() {
+		TestSubscriber<String> subscriber = new TestSubscriber<>();
+		Chunks.publishAll(source, new ChunkRequest(10, Direction.ASC), DIRECT).subscribe(subscriber);
+		subscriber.subscription.request(15);
+		assertThat(subscriber.items).hasSize(15).startsWith("aa").endsWith("oo");
+		assertThat(fetches).hasValue(2);
+		
+		subscriber.subscription.request(100);
+		assertThat(subscriber.items).isEqualTo(ExampleRepository.DATA);
+		assertThat(subscriber.completed).isTrue();
+		assertThat(fetches).hasValue(3);
+	}
+	
+	@Test
+	public void testExactMultipleCompletesAfterEmptyChunk() {
+		TestSubscriber<Chunk<String>> subscriber = new TestSubscriber<>();
+		Chunks.publishChunks(source, new ChunkRequest(13, Direction.ASC), DIRECT).subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertThat(subscriber.items).hasSize(2);
+		assertThat(subscriber.completed).isTrue();
+	}
+	
+	@Test
+	public void testCancel() {
+		TestSubscriber<String> subscriber = new TestSubscriber<>();
+		Chunks.publishAll(source, new ChunkRequest(10, Direction.ASC), DIRECT).subscribe(subscriber);
+		subscriber.subscription.request(5);
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(100);
+		assertThat(subscriber.items).hasSize(5);
+		assertThat(subscriber.completed).isFalse();
+		assertThat(fetches).hasValue(1);
+	}
+	
+	@Test
+	public void testNonPositiveRequestSignalsError() {
+		TestSubscriber<String> subscriber = new TestSubscriber<>();
+		Chunks.publishAll(source, new ChunkRequest(10, Direction.ASC), DIRECT).subscribe(subscriber);
+		subscriber.subscription.request(0);
+		assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+		assertThat(fetches).hasValue(0);
+	}
+	
+	@Test
+	public void testNullSubscriber() {
+		Publisher<String> publisher = Chunks.publishAll(source, new ChunkRequest(10, Direction.ASC), DIRECT);
+		assertThatThrownBy(() -> publisher.subscribe(null)).isInstanceOf(NullPointerException.class);
+	}
+	
+	@Test
+	public void testFetchFailureSignalsError() {
+		ChunkSource<String> failing = c -> {
+			throw new IllegalStateException("failure");
+		};
+		TestSubscriber<String> subscriber = new TestSubscriber<>();
+		Chunks.publishAll(failing, new ChunkRequest(10, Direction.ASC), DIRECT).subscribe(subscriber);
+		subscriber.subscription.request(1);
+		assertThat(subscriber.error).isInstanceOf(IllegalStateException.class).hasMessage("failure");
+	}
+	
+	@Test
+	public void testRequestFromOnNextOnExecutor() throws Exception {
+		CountDownLatch done = new CountDownLatch(1);
+		List<String> items = new ArrayList<>();
+		Chunks.publishAll(source, new ChunkRequest(7, Direction.DESC), executor).subscribe(new Subscriber<String>() {
+			
+			private Subscription subscription;
+			
+			
+			@Override
+			public void onSubscribe(Subscription s) {
+				subscription = s;
+				s.request(1);
+			}
+			
+			@Override
+			public void onNext(String item) {
+				items.add(item);
+				subscription.request(1);
+			}
+			
+			@Override
+			public void onError(Throwable t) {
+				done.countDown();
+			}
+			
+			@Override
+			public void onComplete() {
+				done.countDown();
+			}
+		});
+		assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(items).hasSize(26).startsWith("zz").endsWith("aa");
+	}
+	
+	
+	private static class TestSubscriber<T> implements Subscriber<T> {
+		
+		private final List<T> items = new ArrayList<>();
+		
+		private Subscription subscription;
+		
+		private boolean completed;
+		
+		private Throwable error;
+		
+		
+		@Override
+		public void onSubscribe(Subscription s) {
+			subscription = s;
+		}
+		
+		@Override
+		public void onNext(T item) {
+			items.add(item);
+		}
+		
+		@Override
+		public void onError(Throwable t) {
+			error = t;
+		}
+		
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+}
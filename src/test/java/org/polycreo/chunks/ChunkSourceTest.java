@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test for {@link ChunkSource} and {@link AsyncChunkSource}.
+ */
+public class ChunkSourceTest {
+	
+	private ExampleRepository repo = new ExampleRepository();
+	
+	private ExecutorService executor = Executors.newSingleThreadExecutor();
+	
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void testAsyncRunsOnExecutor() {
+		AtomicReference<Thread> thread = new AtomicReference<>();
+		ChunkSource<String> source = c -> {
+			thread.set(Thread.currentThread());
+			return repo.findAll(c);
+		};
+		Chunk<String> chunk = source.async(executor).findAllAsync(new ChunkRequest(2, Direction.ASC))
+			.toCompletableFuture().join();
+		assertThat(chunk).containsExactly("aa", "bb");
+		assertThat(thread.get()).isNotNull().isNotEqualTo(Thread.currentThread());
+	}
+	
+	@Test
+	public void testAsyncWithDefaultExecutor() {
+		Chunk<String> chunk = repo.async().findAllAsync(new ChunkRequest(2, Direction.DESC))
+			.toCompletableFuture().join();
+		assertThat(chunk).containsExactly("zz", "yy");
+	}
+	
+	@Test
+	public void testBlockingRethrowsUncheckedFailure() {
+		AsyncChunkSource<String> source = c -> {
+			CompletableFuture<Chunk<String>> future = new CompletableFuture<>();
+			future.completeExceptionally(new IllegalStateException("failure"));
+			return future;
+		};
+		assertThatThrownBy(() -> source.blocking().findAll(new ChunkRequest(2, Direction.ASC)))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("failure");
+	}
+	
+	@Test
+	public void testIterateAllAsync() {
+		List<String> actual = new ArrayList<>();
+		Chunks.iterateAll(repo.async(executor), new ChunkRequest(10, Direction.ASC), 1).forEachRemaining(actual::add);
+		assertThat(actual).isEqualTo(ExampleRepository.DATA);
+	}
+}
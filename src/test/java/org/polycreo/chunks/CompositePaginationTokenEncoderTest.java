@@ -0,0 +1,52 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link CompositePaginationTokenEncoder}.
+ */
+public class CompositePaginationTokenEncoderTest {
+	
+	private SimplePaginationTokenEncoder delegate = new SimplePaginationTokenEncoder();
+	
+	private CompositePaginationTokenEncoder encoder = new CompositePaginationTokenEncoder(delegate);
+	
+	
+	@Test
+	public void testRoundTrip() {
+		String token = encoder.encode("aa", "zz", Arrays.asList(delegate.encode("aa", "bb"), null, ""));
+		assertThat(encoder.extractFirstKey(token)).hasValue("aa");
+		assertThat(encoder.extractLastKey(token)).hasValue("zz");
+		assertThat(encoder.extractShardTokens(token)).containsExactly(delegate.encode("aa", "bb"), null, null);
+	}
+	
+	@Test
+	public void testPlainToken() {
+		String token = encoder.encode(null, "zz");
+		assertThat(token).isEqualTo(delegate.encode(null, "zz"));
+		assertThat(encoder.extractFirstKey(token)).isEmpty();
+		assertThat(encoder.extractLastKey(token)).hasValue("zz");
+		assertThat(encoder.extractShardTokens(token)).isEmpty();
+		assertThat(encoder.extractShardTokens(null)).isEmpty();
+	}
+}
@@ -15,14 +15,13 @@
  */
 package org.polycreo.chunks;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.Serializable;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import org.polycreo.chunkrequests.ChunkRequest;
 import org.polycreo.chunkrequests.Chunkable;
 import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
 import org.polycreo.chunkrequests.Direction;
@@ -32,10 +31,16 @@ import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
 /**
  * Example repository implementation.
  */
-public class ExampleRepository { // NOPMD - cc
+public class ExampleRepository implements ChunkSource<String> { // NOPMD - cc
 	
 	private PaginationTokenEncoder encoder = new SimplePaginationTokenEncoder();
 	
+	private ChunkFactory factory = new ChunkFactory(e -> (Serializable) e, encoder);
+	
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	
+	private final boolean lookahead;
+	
 	static final List<String> DATA = IntStream.rangeClosed('a', 'z')
 		.mapToObj(i -> (char) i)
 		.map(String::valueOf)
@@ -43,18 +48,39 @@ public class ExampleRepository { // NOPMD - cc
 		.collect(Collectors.toList());
 	
 	
-	public Chunk<String> findAll(Chunkable chunkable) { // NOPMD -@cs[CyclomaticComplexity|NPathComplexity]
+	/**
+	 * Creates a repository which infers whether more elements follow from the size of each chunk.
+	 */
+	public ExampleRepository() {
+		this(false);
+	}
+	
+	/**
+	 * Creates a repository.
+	 *
+	 * @param lookahead {@literal true} to fetch one extra row per chunk to determine whether more elements follow
+	 */
+	public ExampleRepository(boolean lookahead) {
+		this.lookahead = lookahead;
+	}
+	
+	@Override
+	public Chunk<String> findAll(Chunkable request) { // NOPMD -@cs[CyclomaticComplexity|NPathComplexity]
+		Chunkable chunkable = request;
+		if (chunkable.getMaxPageSize() == null) {
+			chunkable = new ChunkRequest(chunkable.getPaginationToken(), chunkable.getPaginationRelation(),
+					DEFAULT_PAGE_SIZE, chunkable.getDirection());
+		}
 		List<String> source = DATA;
 		
 		Direction direction = chunkable.getDirection();
 		PaginationRelation relation = chunkable.getPaginationRelation();
 		if ((direction == Direction.ASC && relation == PaginationRelation.PREV)
 				|| (direction != Direction.ASC && relation != PaginationRelation.PREV)) {
-			source = new ArrayList<>(DATA); // copy
-			Collections.reverse(source);
+			source = Chunks.reversed(DATA); // view
 		}
 		
-		Integer size = Optional.ofNullable(chunkable.getMaxPageSize()).orElse(20);
+		int size = lookahead ? ChunkFactory.lookaheadLimit(chunkable) : chunkable.getMaxPageSize();
 		List<String> content;
 		if (chunkable.getPaginationToken() == null) {
 			content = source.stream().limit(size).collect(Collectors.toList());
@@ -78,11 +104,14 @@ public class ExampleRepository { // NOPMD - cc
 		}
 		
 		if (relation == PaginationRelation.PREV) {
-			Collections.reverse(content);
+			content = Chunks.reversed(content);
 		}
 		
+		if (lookahead) {
+			return factory.createChunkWithLookahead(content, chunkable);
+		}
 		String paginationToken = encoder.computeToken(chunkable, content);
-		return new ChunkImpl<>(content, paginationToken, chunkable);
+		return ChunkImpl.wrap(content, paginationToken, chunkable);
 	}
 	
 	private Predicate<? super String> keyFilter(String key, PaginationRelation relation, Direction direction) {
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link IdExtractorRegistry}.
+ */
+public class IdExtractorRegistryTest {
+	
+	private IdExtractorRegistry sut = new IdExtractorRegistry(e -> "fallback");
+	
+	
+	@Test
+	public void testGetterAccessor() {
+		assertThat(sut.apply(new LongEntity(1L))).isEqualTo(1L);
+		assertThat(sut.apply(new StringEntity("aa"))).isEqualTo("aa");
+	}
+	
+	@Test
+	public void testRecordStyleAccessor() {
+		assertThat(sut.apply(new RecordStyleEntity(2))).isEqualTo(2);
+	}
+	
+	@Test
+	public void testSubclassOfEntity() {
+		assertThat(sut.apply(new SubEntity(3L))).isEqualTo(3L);
+	}
+	
+	@Test
+	public void testFallback() {
+		assertThat(sut.apply("aa")).isEqualTo("fallback");
+		assertThat(sut.apply(new HiddenEntity())).isEqualTo("fallback");
+	}
+	
+	@Test
+	public void testRegister() {
+		sut.apply(new StringEntity("aa"));
+		sut.register(StringEntity.class, e -> e.getId().toUpperCase());
+		assertThat(sut.apply(new StringEntity("aa"))).isEqualTo("AA");
+	}
+	
+	@Test
+	public void testRegisterAfterSubclassResolved() {
+		assertThat(sut.apply(new SubEntity(3L))).isEqualTo(3L);
+		sut.register(LongEntity.class, e -> "registered-" + e.getId());
+		assertThat(sut.apply(new SubEntity(3L))).isEqualTo("registered-3");
+	}
+	
+	@Test
+	public void testEntityOfChildClassLoader() throws Exception {
+		Class<?> type = new ChildLoader().define(ChildLoaderEntity.class);
+		assertThat(type).isNotEqualTo(ChildLoaderEntity.class);
+		
+		Object entity = type.getConstructor().newInstance();
+		assertThat(sut.apply(entity)).isEqualTo("child");
+		assertThat(sut.apply(entity)).isEqualTo("child");
+	}
+	
+	@Test
+	public void testRegisterComposite() {
+		sut.registerComposite(CompositeEntity.class, CompositeEntity::getTenant, CompositeEntity::getSeq);
+		Serializable id = sut.apply(new CompositeEntity("t1", 5));
+		assertThat(id).isEqualTo(new CompositeId("t1", 5));
+		assertThat(((CompositeId) id).getComponents()).containsExactly("t1", 5);
+	}
+	
+	
+	@Getter
+	@RequiredArgsConstructor
+	public static class LongEntity {
+		
+		private final long id;
+	}
+	
+	@Value
+	public static class StringEntity {
+		
+		private String id;
+	}
+	
+	public static class SubEntity extends LongEntity {
+		
+		public SubEntity(long id) {
+			super(id);
+		}
+	}
+	
+	@Value
+	public static class CompositeEntity {
+		
+		private String tenant;
+		
+		private int seq;
+	}
+	
+	/**
+	 * Entity which exposes its ID by record-style accessor.
+	 */
+	public static class RecordStyleEntity {
+		
+		private final int id;
+		
+		
+		public RecordStyleEntity(int id) {
+			this.id = id;
+		}
+		
+		public int id() {
+			return id;
+		}
+	}
+	
+	/**
+	 * Entity which is defined again by {@link ChildLoader}.
+	 */
+	public static class ChildLoaderEntity {
+		
+		public String getId() {
+			return "child";
+		}
+	}
+	
+	/**
+	 * Class loader which defines a copy of a class, which is not visible from its parent as web application
+	 * class loaders do.
+	 */
+	private static class ChildLoader extends ClassLoader {
+		
+		ChildLoader() {
+			super(IdExtractorRegistryTest.class.getClassLoader());
+		}
+		
+		Class<?> define(Class<?> type) throws IOException {
+			String resource = type.getName().replace('.', '/') + ".class";
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (InputStream in = getParent().getResourceAsStream(resource)) {
+				byte[] buffer = new byte[4096];
+				for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+					bytes.write(buffer, 0, n);
+				}
+			}
+			return defineClass(type.getName(), bytes.toByteArray(), 0, bytes.size());
+		}
+	}
+	
+	/**
+	 * Entity which ID accessor is not accessible.
+	 */
+	static class HiddenEntity {
+		
+		public String getId() {
+			return "hidden";
+		}
+	}
+}
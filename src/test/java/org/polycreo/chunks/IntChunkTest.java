@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link IntChunk}.
+ */
+public class IntChunkTest {
+	
+	private SimplePaginationTokenEncoder encoder = new SimplePaginationTokenEncoder();
+	
+	private ChunkFactory factory = new ChunkFactory(e -> {
+		throw new AssertionError("IDs must not be extracted");
+	}, encoder);
+	
+	
+	@Test
+	public void testPrimitiveAccessAndToken() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 3, Direction.ASC);
+		IntChunk chunk = factory.createChunk(new int[] {
+			3,
+			5,
+			8
+		}, request);
+		assertThat(chunk.getInt(2)).isEqualTo(8);
+		assertThat(chunk.intStream().sum()).isEqualTo(16);
+		assertThat(chunk.getContent()).containsExactly(3, 5, 8);
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode(3, 8));
+		assertThat(chunk.mapToObj(Integer::toString)).containsExactly("3", "5", "8");
+	}
+}
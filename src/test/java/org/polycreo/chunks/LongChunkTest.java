@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link LongChunk}.
+ */
+public class LongChunkTest {
+	
+	private SimplePaginationTokenEncoder encoder = new SimplePaginationTokenEncoder();
+	
+	private ChunkFactory factory = new ChunkFactory(e -> {
+		throw new AssertionError("IDs must not be extracted");
+	}, encoder);
+	
+	
+	@Test
+	public void testPrimitiveAccess() {
+		LongChunk chunk = LongChunk.wrap(new long[] {
+			3L,
+			5L,
+			8L
+		}, null, new ChunkRequest(3, Direction.ASC));
+		assertThat(chunk.getLong(1)).isEqualTo(5L);
+		assertThat(chunk.longStream().sum()).isEqualTo(16L);
+		assertThat(chunk.toLongArray()).containsExactly(3L, 5L, 8L);
+		assertThat(chunk.getContent()).containsExactly(3L, 5L, 8L);
+		
+		PrimitiveIterator.OfLong iterator = chunk.longIterator();
+		AtomicLong sum = new AtomicLong();
+		while (iterator.hasNext()) {
+			sum.addAndGet(iterator.nextLong());
+		}
+		chunk.forEachLong(sum::addAndGet);
+		assertThat(sum).hasValue(32L);
+	}
+	
+	@Test
+	public void testFactoryComputesTokenFromValues() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 3, Direction.ASC);
+		LongChunk chunk = factory.createChunk(new long[] {
+			3L,
+			5L,
+			8L
+		}, request);
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode(3L, 8L));
+		assertThat(chunk.hasNext()).isTrue();
+		assertThat(chunk.nextChunkable().getPaginationToken()).isEqualTo(encoder.encode(3L, 8L));
+		
+		LongChunk first = factory.createChunk(new long[] {
+			1L,
+			2L
+		}, new ChunkRequest(3, Direction.ASC));
+		assertThat(first.getPaginationToken()).isEqualTo(encoder.encode(null, 2L));
+		assertThat(first.isLast()).isTrue();
+		
+		LongChunk empty = factory.createChunk(new long[0], request);
+		assertThat(empty.hasContent()).isFalse();
+		assertThat(empty.getPaginationToken()).isNull();
+	}
+	
+	@Test
+	public void testMapToObjKeepsNavigation() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 2, Direction.DESC);
+		LongChunk chunk = factory.createChunk(new long[] {
+			8L,
+			5L
+		}, request);
+		Chunk<String> mapped = chunk.mapToObj(id -> "account-" + id);
+		assertThat(mapped).containsExactly("account-8", "account-5");
+		assertThat(mapped.getPaginationToken()).isEqualTo(chunk.getPaginationToken());
+		assertThat(mapped.hasNext()).isEqualTo(chunk.hasNext());
+		assertThat(mapped.hasPrevious()).isEqualTo(chunk.hasPrevious());
+	}
+	
+	@Test
+	public void testMapToObjIsLazy() {
+		LongChunk chunk = LongChunk.wrap(new long[] {
+			8L,
+			5L,
+			3L
+		}, null, null);
+		AtomicLong calls = new AtomicLong();
+		Chunk<String> mapped = chunk.mapToObj(id -> {
+			calls.incrementAndGet();
+			return "account-" + id;
+		});
+		assertThat(calls).hasValue(0);
+		assertThat(mapped.getContent().get(1)).isEqualTo("account-5");
+		assertThat(calls).hasValue(1);
+		assertThat(mapped).containsExactly("account-8", "account-5", "account-3");
+		assertThat(mapped).containsExactly("account-8", "account-5", "account-3");
+		assertThat(calls).hasValue(3);
+	}
+	
+	@Test
+	public void testIntChunkSharesBehavior() {
+		Chunkable request = new ChunkRequest("token", PaginationRelation.NEXT, 2, Direction.ASC);
+		IntChunk chunk = factory.createChunk(new int[] {
+			3,
+			5
+		}, request);
+		assertThat(chunk.getPaginationToken()).isEqualTo(encoder.encode(3, 5));
+		assertThat(chunk.mapToObj(Integer::toString)).containsExactly("3", "5");
+		
+		PrimitiveIterator.OfInt iterator = chunk.intIterator();
+		assertThat(iterator.nextInt()).isEqualTo(3);
+		assertThat(iterator.nextInt()).isEqualTo(5);
+		assertThat(iterator.hasNext()).isFalse();
+		assertThatThrownBy(iterator::nextInt).isInstanceOf(NoSuchElementException.class);
+	}
+}
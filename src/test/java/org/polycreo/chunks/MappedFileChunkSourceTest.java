@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link MappedFileChunkSource}.
+ */
+public class MappedFileChunkSourceTest {
+	
+	private static final RecordCodec<String> CODEC = b -> StandardCharsets.UTF_8.decode(b).toString();
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	
+	@Test
+	public void testWalkMatchesInMemorySource() throws IOException {
+		Path file = write(ExampleRepository.DATA);
+		NavigableChunkSource<String, String> expected =
+				new NavigableChunkSource<>(Function.identity(), Function.identity());
+		expected.putAll(ExampleRepository.DATA);
+		
+		// small blocks and segments to cross their boundaries within a page
+		for (int indexInterval : Arrays.asList(1, 3, 64)) {
+			for (int maxSegmentSize : Arrays.asList(20, Integer.MAX_VALUE)) {
+				try (MappedFileChunkSource<String, String> source = open(file, indexInterval, maxSegmentSize)) {
+					assertThat(source.size()).isEqualTo(26);
+					for (int size : Arrays.asList(1, 4, 13, 30)) {
+						for (Direction direction : Direction.values()) {
+							assertSameWalk(source, expected, new ChunkRequest(size, direction));
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testPreviousChunk() throws IOException {
+		try (MappedFileChunkSource<String, String> source = open(write(ExampleRepository.DATA), 4, 20)) {
+			Chunk<String> first = source.findAll(new ChunkRequest(5, Direction.DESC));
+			Chunk<String> second = source.findAll(first.nextChunkable());
+			assertThat(second.getContent()).containsExactly("uu", "tt", "ss", "rr", "qq");
+			
+			Chunk<String> previous = source.findAll(second.previousChunkable());
+			assertThat(previous.getContent()).isEqualTo(first.getContent());
+			assertThat(previous.hasPrevious()).isFalse();
+		}
+	}
+	
+	@Test
+	public void testEmptyFile() throws IOException {
+		try (MappedFileChunkSource<String, String> source = open(write(new ArrayList<>()), 4, 20)) {
+			Chunk<String> chunk = source.findAll(new ChunkRequest(5, Direction.ASC));
+			assertThat(chunk.hasContent()).isFalse();
+			assertThat(chunk.hasNext()).isFalse();
+		}
+	}
+	
+	@Test
+	public void testTruncatedFileIsRejected() throws IOException {
+		Path file = write(ExampleRepository.DATA);
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+		try (MappedFileChunkSource<String, String> source = open(file, 4, Integer.MAX_VALUE)) {
+			assertThatThrownBy(() -> source.findAll(new ChunkRequest(5, Direction.ASC)))
+				.isInstanceOf(UncheckedIOException.class);
+		}
+	}
+	
+	@Test
+	public void testUnsortedIndexIsRejected() throws IOException {
+		Path file = write(Arrays.asList("bb", "aa"));
+		try (MappedFileChunkSource<String, String> source = open(file, 1, Integer.MAX_VALUE)) {
+			assertThatThrownBy(source::size).isInstanceOf(UncheckedIOException.class);
+		}
+	}
+	
+	@Test
+	public void testUnsortedRecordWithinBlockIsRejected() throws IOException {
+		// index entries of "aa" and "dd" are in order, but "cc" and "bb" between them are not
+		Path file = write(Arrays.asList("aa", "cc", "bb", "dd", "ee"));
+		try (MappedFileChunkSource<String, String> source = open(file, 3, Integer.MAX_VALUE)) {
+			assertThat(source.size()).isEqualTo(5);
+			assertThatThrownBy(() -> source.findAll(new ChunkRequest(5, Direction.ASC)))
+				.isInstanceOf(UncheckedIOException.class);
+			assertThatThrownBy(() -> source.findAll(new ChunkRequest(5, Direction.DESC)))
+				.isInstanceOf(UncheckedIOException.class);
+		}
+	}
+	
+	@Test
+	public void testFetchAfterCloseIsRejected() throws IOException {
+		MappedFileChunkSource<String, String> source = open(write(ExampleRepository.DATA), 4, 20);
+		assertThat(source.findAll(new ChunkRequest(5, Direction.ASC)).getContent()).hasSize(5);
+		source.close();
+		source.close();
+		assertThatThrownBy(() -> source.findAll(new ChunkRequest(5, Direction.ASC)))
+			.isInstanceOf(IllegalStateException.class);
+	}
+	
+	private Path write(List<String> records) throws IOException {
+		Path file = temporaryFolder.newFile().toPath();
+		try (OutputStream out = Files.newOutputStream(file);
+				DataOutputStream data = new DataOutputStream(out)) {
+			for (String record : records) {
+				byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+				data.writeInt(payload.length);
+				data.write(payload);
+			}
+		}
+		return file;
+	}
+	
+	private MappedFileChunkSource<String, String> open(Path file, int indexInterval, int maxSegmentSize)
+			throws IOException {
+		return new MappedFileChunkSource<>(file, CODEC, Function.identity(), Function.identity(), null,
+				new SimplePaginationTokenEncoder(), indexInterval, maxSegmentSize);
+	}
+	
+	private void assertSameWalk(ChunkSource<String> actual, ChunkSource<String> expected, Chunkable request) {
+		Chunkable last = null;
+		for (Chunkable c = request; c != null;) {
+			Chunk<String> chunk = actual.findAll(c);
+			assertThat(chunk.getContent()).isEqualTo(expected.findAll(c).getContent());
+			assertThat(chunk.hasNext()).isEqualTo(expected.findAll(c).hasNext());
+			last = c;
+			c = chunk.nextChunkable();
+		}
+		// walk back from the last chunk
+		for (Chunkable c = actual.findAll(last).previousChunkable(); c != null;) {
+			Chunk<String> chunk = actual.findAll(c);
+			assertThat(chunk.getContent()).isEqualTo(expected.findAll(c).getContent());
+			assertThat(chunk.hasPrevious()).isEqualTo(expected.findAll(c).hasPrevious());
+			c = chunk.previousChunkable();
+		}
+	}
+}
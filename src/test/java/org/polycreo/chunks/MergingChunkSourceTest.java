@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test for {@link MergingChunkSource}.
+ */
+public class MergingChunkSourceTest {
+	
+	private ExecutorService executor = Executors.newFixedThreadPool(4);
+	
+	private NavigableChunkSource<String, String> all =
+			new NavigableChunkSource<>(Function.identity(), Function.identity());
+	
+	private AtomicInteger fetchedElements = new AtomicInteger();
+	
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void testRoundRobinShards() {
+		MergingChunkSource<String, String> source = shards(3, i -> i % 3);
+		for (int size : Arrays.asList(1, 4, 9, 13, 30)) {
+			for (Direction direction : Direction.values()) {
+				assertSameWalk(source, new ChunkRequest(size, direction));
+			}
+		}
+	}
+	
+	@Test
+	public void testSkewedShards() {
+		// first shard holds most of the elements, the last one holds nothing
+		MergingChunkSource<String, String> source = shards(4, i -> i < 20 ? 0 : i % 3);
+		for (int size : Arrays.asList(1, 5, 13)) {
+			for (Direction direction : Direction.values()) {
+				assertSameWalk(source, new ChunkRequest(size, direction));
+			}
+		}
+	}
+	
+	@Test
+	public void testFetchesNoMoreThanNeeded() {
+		MergingChunkSource<String, String> source = shards(4, i -> i < 20 ? 0 : i % 3);
+		Chunk<String> chunk = source.findAll(new ChunkRequest(8, Direction.ASC));
+		assertThat(chunk.getContent()).containsExactly("aa", "bb", "cc", "dd", "ee", "ff", "gg", "hh");
+		// 2 from each shard first, then the missing 6 from the first shard
+		assertThat(fetchedElements.get()).isLessThanOrEqualTo(8 + 4 * 2);
+		
+		fetchedElements.set(0);
+		source.findAll(chunk.nextChunkable());
+		assertThat(fetchedElements.get()).isLessThanOrEqualTo(8 + 4 * 2);
+	}
+	
+	@Test
+	public void testPlainTokenIsAccepted() {
+		MergingChunkSource<String, String> source = shards(3, i -> i % 3);
+		Chunk<String> expected = all.findAll(new ChunkRequest(5, Direction.ASC));
+		Chunk<String> chunk = source.findAll(expected.nextChunkable());
+		assertThat(chunk.getContent()).isEqualTo(all.findAll(expected.nextChunkable()).getContent());
+	}
+	
+	private MergingChunkSource<String, String> shards(int count, Function<Integer, Integer> partitioner) {
+		List<NavigableChunkSource<String, String>> shards = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			shards.add(new NavigableChunkSource<>(Function.identity(), Function.identity()));
+		}
+		for (int i = 0; i < ExampleRepository.DATA.size(); i++) {
+			shards.get(partitioner.apply(i)).put(ExampleRepository.DATA.get(i));
+			all.put(ExampleRepository.DATA.get(i));
+		}
+		List<ChunkSource<String>> counting = new ArrayList<>();
+		for (NavigableChunkSource<String, String> shard : shards) {
+			counting.add(c -> {
+				Chunk<String> chunk = shard.findAll(c);
+				fetchedElements.addAndGet(chunk.size());
+				return chunk;
+			});
+		}
+		return new MergingChunkSource<>(counting, Function.identity(), null, new CompositePaginationTokenEncoder(),
+				executor);
+	}
+	
+	private void assertSameWalk(ChunkSource<String> source, Chunkable request) {
+		List<String> forward = new ArrayList<>();
+		Chunk<String> chunk = source.findAll(request);
+		Chunk<String> expected = all.findAll(request);
+		while (true) {
+			assertThat(chunk.getContent()).isEqualTo(expected.getContent());
+			assertThat(chunk.hasNext()).isEqualTo(expected.hasNext());
+			forward.addAll(chunk.getContent());
+			if (chunk.hasNext() == false) {
+				break;
+			}
+			chunk = source.findAll(chunk.nextChunkable());
+			expected = all.findAll(expected.nextChunkable());
+		}
+		assertThat(forward).hasSize(26);
+		
+		while (chunk.hasPrevious()) {
+			chunk = source.findAll(chunk.previousChunkable());
+			expected = all.findAll(expected.previousChunkable());
+			assertThat(chunk.getContent()).isEqualTo(expected.getContent());
+			assertThat(chunk.hasPrevious()).isEqualTo(expected.hasPrevious());
+		}
+		assertThat(chunk.getContent()).isEqualTo(all.findAll(request).getContent());
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link NavigableChunkSource}.
+ */
+public class NavigableChunkSourceTest {
+	
+	private NavigableChunkSource<String, String> source =
+			new NavigableChunkSource<>(Function.identity(), Function.identity());
+	
+	private ExampleRepository repo = new ExampleRepository();
+	
+	
+	@Before
+	public void setUp() {
+		source.putAll(ExampleRepository.DATA);
+	}
+	
+	@Test
+	public void testWalkASCMatchesLinearScan() {
+		assertWalkMatchesLinearScan(new ChunkRequest(10, Direction.ASC));
+	}
+	
+	@Test
+	public void testWalkDESCMatchesLinearScan() {
+		assertWalkMatchesLinearScan(new ChunkRequest(7, Direction.DESC));
+	}
+	
+	@Test
+	public void testPreviousChunk() {
+		Chunk<String> first = source.findAll(new ChunkRequest(10, Direction.ASC));
+		Chunk<String> second = source.findAll(first.nextChunkable());
+		assertThat(second.getContent()).containsExactly("kk", "ll", "mm", "nn", "oo", "pp", "qq", "rr", "ss", "tt");
+		
+		Chunk<String> previous = source.findAll(second.previousChunkable());
+		assertThat(previous.getContent()).isEqualTo(first.getContent());
+		assertThat(previous.hasPrevious()).isFalse();
+		assertThat(previous.hasNext()).isTrue();
+	}
+	
+	@Test
+	public void testExactMultipleEndsWithoutEmptyChunk() {
+		Chunk<String> first = source.findAll(new ChunkRequest(13, Direction.ASC));
+		assertThat(first.hasNext()).isTrue();
+		Chunk<String> second = source.findAll(first.nextChunkable());
+		assertThat(second.getContent()).hasSize(13).endsWith("zz");
+		assertThat(second.isLast()).isTrue();
+		assertThat(second.hasNext()).isFalse();
+	}
+	
+	@Test
+	public void testResumesAfterRemovedKey() {
+		Chunk<String> first = source.findAll(new ChunkRequest(2, Direction.ASC));
+		assertThat(first.getContent()).containsExactly("aa", "bb");
+		source.remove("bb");
+		source.put("bc");
+		Chunk<String> second = source.findAll(first.nextChunkable());
+		assertThat(second.getContent()).containsExactly("bc", "cc");
+	}
+	
+	@Test
+	public void testEmptySource() {
+		source.clear();
+		Chunk<String> chunk = source.findAll(new ChunkRequest(10, Direction.DESC));
+		assertThat(chunk.hasContent()).isFalse();
+		assertThat(chunk.hasNext()).isFalse();
+		assertThat(chunk.getPaginationToken()).isNull();
+	}
+	
+	@Test
+	public void testSegmentBoundsASC() {
+		SegmentChunkRequest segment = new SegmentChunkRequest(null, null, 3, Direction.ASC, 1, "dd", "hh");
+		Chunk<String> first = source.findAll(segment);
+		assertThat(first.getContent()).containsExactly("dd", "ee", "ff");
+		assertThat(first.hasNext()).isTrue();
+		Chunk<String> second = source.findAll(segment.follow(first.nextChunkable()));
+		assertThat(second.getContent()).containsExactly("gg");
+		assertThat(second.isLast()).isTrue();
+	}
+	
+	@Test
+	public void testSegmentBoundsDESC() {
+		SegmentChunkRequest segment = new SegmentChunkRequest(null, null, 4, Direction.DESC, 1, "dd", "hh");
+		Chunk<String> first = source.findAll(segment);
+		assertThat(first.getContent()).containsExactly("gg", "ff", "ee", "dd");
+		assertThat(first.isLast()).isTrue();
+		assertThat(first.hasNext()).isFalse();
+	}
+	
+	@Test
+	public void testSegmentIgnoresTokenOutsideBounds() {
+		Chunk<String> outside = source.findAll(new ChunkRequest(2, Direction.ASC));
+		SegmentChunkRequest segment = new SegmentChunkRequest(null, null, 2, Direction.ASC, 0, "xx", null);
+		Chunk<String> chunk = source.findAll(segment.follow(outside.nextChunkable()));
+		assertThat(chunk.getContent()).containsExactly("xx", "yy");
+	}
+	
+	@Test
+	public void testByteBudgetWalkVisitsAllElements() {
+		NavigableChunkSource<String, String> budgeted = new NavigableChunkSource<>(Function.identity(),
+				Function.identity(), null, new SimplePaginationTokenEncoder(), s -> s.startsWith("m") ? 100 : 2, 7);
+		budgeted.putAll(ExampleRepository.DATA);
+		for (Direction direction : Direction.values()) {
+			List<List<String>> chunks = new ArrayList<>();
+			for (Chunkable c = new ChunkRequest(10, direction); c != null;) {
+				Chunk<String> chunk = budgeted.findAll(c);
+				chunks.add(chunk.getContent());
+				c = chunk.nextChunkable();
+			}
+			assertThat(chunks).allSatisfy(chunk -> assertThat(chunk).hasSizeBetween(1, 3));
+			assertThat(chunks).contains(Collections.singletonList("mm"));
+			List<String> expected =
+					direction == Direction.ASC ? ExampleRepository.DATA : Chunks.reversed(ExampleRepository.DATA);
+			assertThat(chunks.stream().flatMap(List::stream).collect(Collectors.toList())).isEqualTo(expected);
+		}
+	}
+	
+	@Test
+	public void testByteBudgetPreviousChunk() {
+		NavigableChunkSource<String, String> budgeted = new NavigableChunkSource<>(Function.identity(),
+				Function.identity(), null, new SimplePaginationTokenEncoder(), String::length, 6);
+		budgeted.putAll(ExampleRepository.DATA);
+		Chunk<String> first = budgeted.findAll(new ChunkRequest(10, Direction.ASC));
+		assertThat(first.getContent()).containsExactly("aa", "bb", "cc");
+		Chunk<String> second = budgeted.findAll(first.nextChunkable());
+		assertThat(second.getContent()).containsExactly("dd", "ee", "ff");
+		Chunk<String> previous = budgeted.findAll(second.previousChunkable());
+		assertThat(previous.getContent()).containsExactly("aa", "bb", "cc");
+		assertThat(previous.hasPrevious()).isFalse();
+	}
+	
+	private void assertWalkMatchesLinearScan(Chunkable request) {
+		List<List<String>> expected = new ArrayList<>();
+		for (Chunkable c = request; c != null;) {
+			Chunk<String> chunk = repo.findAll(c);
+			if (chunk.hasContent()) {
+				expected.add(chunk.getContent());
+			}
+			c = chunk.nextChunkable();
+		}
+		List<List<String>> actual = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		for (Chunkable c = request; c != null;) {
+			Chunk<String> chunk = source.findAll(c);
+			actual.add(chunk.getContent());
+			tokens.add(chunk.getPaginationToken());
+			c = chunk.nextChunkable();
+		}
+		assertThat(actual).isEqualTo(expected);
+		assertThat(tokens).doesNotContainNull();
+		assertThat(actual.stream().flatMap(List::stream).collect(Collectors.toList())).hasSize(26);
+	}
+}
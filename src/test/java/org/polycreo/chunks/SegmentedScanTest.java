@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Direction;
+
+/**
+ * Test for {@link KeyRangeSplitter} and {@link Chunks#streamAll(ChunkSource, List)}.
+ */
+public class SegmentedScanTest {
+	
+	private NavigableChunkSource<String, String> source =
+			new NavigableChunkSource<>(Function.identity(), Function.identity());
+	
+	
+	@Before
+	public void setUp() {
+		source.putAll(ExampleRepository.DATA);
+	}
+	
+	@Test
+	public void testSplitPoints() {
+		List<String> points = KeyRangeSplitter.splitPoints(ExampleRepository.DATA, Comparator.naturalOrder(), 4);
+		assertThat(points).containsExactly("gg", "nn", "tt");
+	}
+	
+	@Test
+	public void testSplitPointsSkipsDuplicates() {
+		List<String> samples = Arrays.asList("aa", "aa", "aa", "aa", "bb", "bb", "bb", "bb");
+		assertThat(KeyRangeSplitter.splitPoints(samples, Comparator.naturalOrder(), 4)).containsExactly("bb");
+	}
+	
+	@Test
+	public void testUniformSplitPoints() {
+		assertThat(KeyRangeSplitter.uniformSplitPoints(0, 100, 4)).containsExactly(25L, 50L, 75L);
+		assertThat(KeyRangeSplitter.uniformSplitPoints(0, 2, 4)).containsExactly(1L);
+		assertThat(KeyRangeSplitter.uniformSplitPoints(5, 5, 4)).isEmpty();
+	}
+	
+	@Test
+	public void testSegments() {
+		List<SegmentChunkRequest> segments = KeyRangeSplitter.segments(Arrays.asList("gg", "nn"), 5, Direction.DESC);
+		assertThat(segments).extracting(SegmentChunkRequest::getSegment).containsExactly(2, 1, 0);
+		assertThat(segments.get(0).getLowerBound()).isEqualTo("nn");
+		assertThat(segments.get(0).getUpperBound()).isNull();
+		assertThat(segments.get(2).getLowerBound()).isNull();
+		assertThat(segments.get(2).getUpperBound()).isEqualTo("gg");
+	}
+	
+	@Test
+	public void testParallelStreamASC() {
+		assertParallelStreamMatchesWalk(Direction.ASC);
+	}
+	
+	@Test
+	public void testParallelStreamDESC() {
+		assertParallelStreamMatchesWalk(Direction.DESC);
+	}
+	
+	@Test
+	public void testSegmentsAreSplitForParallelStreams() {
+		List<String> points = KeyRangeSplitter.splitPoints(ExampleRepository.DATA, Comparator.naturalOrder(), 8);
+		List<SegmentChunkRequest> segments = KeyRangeSplitter.segments(points, 2, Direction.ASC);
+		
+		Spliterator<String> suffix = Chunks.streamAll(source, segments).spliterator();
+		Spliterator<String> prefix = suffix.trySplit();
+		assertThat(prefix).isNotNull();
+		List<String> actual = new ArrayList<>();
+		prefix.forEachRemaining(actual::add);
+		int prefixSize = actual.size();
+		suffix.forEachRemaining(actual::add);
+		
+		assertThat(prefixSize).isBetween(1, 25);
+		assertThat(actual).isEqualTo(ExampleRepository.DATA);
+	}
+	
+	@Test
+	public void testParallelStreamThroughCache() {
+		AtomicInteger fetches = new AtomicInteger();
+		CachingChunkSource<String> cache = new CachingChunkSource<>(c -> {
+			fetches.incrementAndGet();
+			return source.findAll(c);
+		}, 100, null);
+		List<String> points = KeyRangeSplitter.splitPoints(ExampleRepository.DATA, Comparator.naturalOrder(), 5);
+		List<SegmentChunkRequest> segments = KeyRangeSplitter.segments(points, 3, Direction.ASC);
+		
+		// the first requests of all segments differ only in their bounds, so must not share a cache entry
+		assertThat(Chunks.streamAll(cache, segments).parallel().collect(Collectors.toList()))
+			.isEqualTo(ExampleRepository.DATA);
+		int misses = fetches.get();
+		assertThat(cache.size()).isEqualTo(misses);
+		assertThat(Chunks.streamAll(cache, segments).parallel().collect(Collectors.toList()))
+			.isEqualTo(ExampleRepository.DATA);
+		assertThat(fetches).hasValue(misses);
+	}
+	
+	private void assertParallelStreamMatchesWalk(Direction direction) {
+		List<String> expected = Chunks.streamAll(source, new ChunkRequest(7, direction))
+			.collect(Collectors.toList());
+		List<String> points = KeyRangeSplitter.splitPoints(ExampleRepository.DATA, Comparator.naturalOrder(), 5);
+		List<SegmentChunkRequest> segments = KeyRangeSplitter.segments(points, 3, direction);
+		
+		assertThat(Chunks.streamAll(source, segments).collect(Collectors.toList())).isEqualTo(expected);
+		assertThat(Chunks.streamAll(source, segments).parallel().collect(Collectors.toList())).isEqualTo(expected);
+		assertThat(expected).hasSize(26);
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunkrequests.SimplePaginationTokenEncoder;
+
+/**
+ * Test for {@link StripedChunkMetrics}, as reported by {@link ChunkFactory} and {@link MeteredChunkSource}.
+ */
+public class StripedChunkMetricsTest {
+	
+	private StripedChunkMetrics metrics = new StripedChunkMetrics();
+	
+	private ChunkFactory factory =
+			new ChunkFactory(e -> (Serializable) e, new SimplePaginationTokenEncoder(), metrics);
+	
+	
+	@Test
+	public void testChunkCreated() {
+		factory.createChunk(Arrays.asList("aa", "bb", "cc"), new ChunkRequest(3, Direction.ASC));
+		factory.createChunk(Arrays.asList("dd"), new ChunkRequest(3, Direction.ASC));
+		factory.createChunkWithLookahead(Arrays.asList("aa", "bb", "cc", "dd"), new ChunkRequest(3, Direction.ASC));
+		
+		assertThat(metrics.getPageSizes().getCount()).isEqualTo(3);
+		assertThat(metrics.getPageSizes().getSum()).isEqualTo(7);
+		assertThat(metrics.getLastChunks()).isEqualTo(1);
+	}
+	
+	@Test
+	public void testTokenComputedOnlyOnAccess() {
+		Chunk<String> chunk = factory.createChunk(Arrays.asList("aa", "bb"), new ChunkRequest(2, Direction.ASC));
+		assertThat(metrics.getEncodingNanos().getCount()).isZero();
+		
+		chunk.getPaginationToken();
+		chunk.getPaginationToken();
+		factory.createChunk(new long[] {
+			1L,
+			2L
+		}, new ChunkRequest(2, Direction.ASC)).getPaginationToken();
+		
+		assertThat(metrics.getIdExtractionNanos().getCount()).isEqualTo(2);
+		assertThat(metrics.getEncodingNanos().getCount()).isEqualTo(2);
+	}
+	
+	@Test
+	public void testMeteredWalk() {
+		ChunkSource<String> source = new MeteredChunkSource<>(new ExampleRepository(), metrics);
+		Chunkable request = new ChunkRequest(10, Direction.ASC);
+		assertThat(Chunks.streamAll(source, request).collect(Collectors.toList())).hasSize(26);
+		Chunk<String> first = source.findAll(request);
+		Chunk<String> second = source.findAll(first.nextChunkable());
+		source.findAll(second.previousChunkable());
+		
+		assertThat(metrics.getWalks()).isEqualTo(2);
+		assertThat(metrics.getNextHops()).isEqualTo(3);
+		assertThat(metrics.getPreviousHops()).isEqualTo(1);
+		assertThat(metrics.getMeanHopsPerWalk()).isEqualTo(2.0);
+		assertThat(metrics.getFetchNanos().getCount()).isEqualTo(6);
+	}
+	
+	@Test
+	public void testHistogramPercentiles() {
+		StripedChunkMetrics.Histogram histogram = new StripedChunkMetrics.Histogram();
+		assertThat(histogram.getValueAtPercentile(50)).isZero();
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		histogram.record(-1); // recorded as zero
+		
+		assertThat(histogram.getCount()).isEqualTo(101);
+		assertThat(histogram.getSum()).isEqualTo(5050);
+		assertThat(histogram.getValueAtPercentile(0)).isZero();
+		assertThat(histogram.getValueAtPercentile(50)).isEqualTo(63);
+		assertThat(histogram.getValueAtPercentile(100)).isEqualTo(127);
+	}
+}
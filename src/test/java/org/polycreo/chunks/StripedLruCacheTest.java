@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test for {@link StripedLruCache}.
+ */
+public class StripedLruCacheTest {
+	
+	private ExecutorService executor = Executors.newSingleThreadExecutor();
+	
+	private StripedLruCache<Integer, String> cache =
+			new StripedLruCache<>(100, Long.MAX_VALUE, v -> 0, Long.MAX_VALUE, System::nanoTime);
+	
+	
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+	
+	@Test
+	public void testLoadSurvivesInvalidationOfOtherSegment() throws Exception {
+		// keys 0 and 1 belong to different segments
+		assertThat(loadWhileInvalidating(0, 1)).isEqualTo("0");
+		assertThat(cache.getIfPresent(0)).isEqualTo("0");
+	}
+	
+	@Test
+	public void testLoadInFlightDuringInvalidationOfItsSegmentIsNotCached() throws Exception {
+		// keys 0 and 16 belong to the same segment
+		assertThat(loadWhileInvalidating(0, 16)).isEqualTo("0");
+		assertThat(cache.getIfPresent(0)).isNull();
+	}
+	
+	@Test
+	public void testLoadInFlightDuringInvalidateAllIsNotCached() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> future = executor.submit(() -> cache.get(0, k -> load(k, loading, release)));
+		assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+		cache.invalidateAll();
+		release.countDown();
+		assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo("0");
+		assertThat(cache.getIfPresent(0)).isNull();
+	}
+	
+	@Test
+	public void testSizeBoundSmallerThanSegments() {
+		StripedLruCache<Integer, String> small =
+				new StripedLruCache<>(2, Long.MAX_VALUE, v -> 0, Long.MAX_VALUE, System::nanoTime);
+		for (int i = 0; i < 16; i++) {
+			small.get(i, String::valueOf);
+			assertThat(small.size()).isLessThanOrEqualTo(2);
+		}
+		assertThat(small.getIfPresent(15)).isEqualTo("15");
+	}
+	
+	private String loadWhileInvalidating(Integer key, Integer invalidated) throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> future = executor.submit(() -> cache.get(key, k -> load(k, loading, release)));
+		assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+		cache.invalidate(invalidated);
+		release.countDown();
+		return future.get(10, TimeUnit.SECONDS);
+	}
+	
+	private static String load(Integer key, CountDownLatch loading, CountDownLatch release) {
+		loading.countDown();
+		try {
+			release.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return String.valueOf(key);
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import lombok.Value;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunks.Chunk;
+import org.polycreo.chunks.ChunkImpl;
+import org.polycreo.chunks.Chunks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test for {@link ChunkSerializer}.
+ */
+public class ChunkSerializerTest {
+	
+	@Test
+	public void testSerialize() throws Exception {
+		ObjectMapper mapper = new ObjectMapper().registerModule(new ChunkModule());
+		Chunk<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", null, "bb"), "token", new ChunkRequest(3, Direction.ASC));
+		assertThat(mapper.writeValueAsString(chunk))
+			.isEqualTo("{\"paginationToken\":\"token\",\"content\":[\"aa\",null,\"bb\"]}");
+	}
+	
+	@Test
+	public void testSerializeWithNavigation() throws Exception {
+		ObjectMapper mapper = new ObjectMapper().registerModule(new ChunkModule(true));
+		Chunk<String> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bb"), "token", new ChunkRequest(3, Direction.ASC));
+		assertThat(mapper.writeValueAsString(chunk)).isEqualTo(
+				"{\"paginationToken\":\"token\",\"hasNext\":false,\"hasPrevious\":false,\"content\":[\"aa\",\"bb\"]}");
+	}
+	
+	@Test
+	public void testSerializeMappedContent() throws Exception {
+		ObjectMapper mapper = new ObjectMapper().registerModule(new ChunkModule());
+		Chunk<Item> chunk = ChunkImpl.wrap(Arrays.asList("aa", "bbb"), "token", new ChunkRequest(3, Direction.ASC))
+			.map(s -> new Item(s, s.length()));
+		assertThat(mapper.writeValueAsString(chunk)).isEqualTo(
+				"{\"paginationToken\":\"token\",\"content\":[{\"name\":\"aa\",\"size\":2},{\"name\":\"bbb\",\"size\":3}]}");
+	}
+	
+	@Test
+	public void testSerializeEmptyChunk() throws Exception {
+		ObjectMapper mapper = new ObjectMapper().registerModule(new ChunkModule(true));
+		assertThat(mapper.writeValueAsString(Chunks.emptyChunk()))
+			.isEqualTo("{\"paginationToken\":null,\"content\":[]}");
+		assertThat(mapper.writeValueAsString(Collections.singletonMap("chunk", Chunks.emptyChunk())))
+			.isEqualTo("{\"chunk\":{\"paginationToken\":null,\"content\":[]}}");
+	}
+	
+	
+	@Value
+	private static class Item {
+		
+		private String name;
+		
+		private int size;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunks.CachingChunkSource;
+import org.polycreo.chunks.Chunk;
+import org.polycreo.chunks.ChunkSource;
+import org.polycreo.chunks.NavigableChunkSource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Test for {@link EncodedChunk} and {@link EncodingChunkSource}.
+ */
+public class EncodedChunkTest {
+	
+	private NavigableChunkSource<Integer, Integer> data = new NavigableChunkSource<>(i -> i, Integer::valueOf);
+	
+	
+	@Test
+	public void testEncodedBytesMatchLiveSerialization() throws Exception {
+		fill(10);
+		Chunkable request = new ChunkRequest(4, Direction.DESC);
+		for (ObjectMapper mapper : new ObjectMapper[] {
+			new ObjectMapper(),
+			new ObjectMapper().registerModule(new ChunkModule(true))
+		}) {
+			ObjectWriter writer = mapper.writer();
+			Chunk<Integer> chunk = data.findAll(request);
+			EncodedChunk<Integer> encoded = EncodedChunk.encode(chunk, writer, mapper.readerFor(Integer.class));
+			byte[] expected = writer.writeValueAsBytes(chunk);
+			
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			encoded.writeTo(out);
+			assertThat(out.toByteArray()).isEqualTo(expected);
+			out.reset();
+			encoded.writeTo(Channels.newChannel(out));
+			assertThat(out.toByteArray()).isEqualTo(expected);
+			
+			assertThat(encoded.getEncodedLength()).isEqualTo(expected.length);
+			assertThat(encoded.getEncoded().isDirect()).isFalse();
+			assertThat(encoded.getEncoded().isReadOnly()).isTrue();
+			assertThat(writer.writeValueAsBytes(encoded)).isEqualTo(expected);
+			
+			// content is decoded from the serialized form
+			assertThat(encoded).containsExactly(9, 8, 7, 6);
+		}
+	}
+	
+	@Test
+	public void testDelegatesToChunk() {
+		fill(10);
+		Chunk<Integer> chunk = data.findAll(new ChunkRequest(4, Direction.ASC));
+		ObjectMapper mapper = new ObjectMapper().registerModule(new ChunkModule());
+		EncodedChunk<Integer> encoded = EncodedChunk.encode(chunk, mapper.writer(), mapper.readerFor(Integer.class));
+		assertThat(encoded).containsExactly(0, 1, 2, 3);
+		assertThat(encoded.getContent()).containsExactly(0, 1, 2, 3);
+		assertThat(encoded).hasSize(4);
+		assertThat(encoded.getPaginationToken()).isEqualTo(chunk.getPaginationToken());
+		assertThat(encoded.getFingerprint()).isEqualTo(chunk.getFingerprint());
+		assertThat(encoded.getChunkable()).isSameAs(chunk.getChunkable());
+		assertThat(encoded.getDirection()).isEqualTo(Direction.ASC);
+		assertThat(encoded.isFirst()).isTrue();
+		assertThat(encoded.isLast()).isFalse();
+		assertThat(encoded.hasNext()).isTrue();
+		assertThat(encoded.hasPrevious()).isFalse();
+		assertThat(encoded.nextChunkable().getPaginationToken()).isEqualTo(chunk.getPaginationToken());
+		assertThat(encoded.previousChunkable()).isNull();
+		
+		Chunk<Integer> mapped = encoded.map(i -> i * 2);
+		assertThat(mapped).containsExactly(0, 2, 4, 6);
+		assertThat(mapped.getPaginationToken()).isEqualTo(chunk.getPaginationToken());
+		assertThat(mapped.hasNext()).isTrue();
+		assertThat(mapped.map(i -> i + 1)).containsExactly(1, 3, 5, 7);
+		assertThat(EncodedChunk.from(encoded, mapper.writer(), mapper.readerFor(Integer.class))).isSameAs(encoded);
+	}
+	
+	@Test
+	public void testCacheHitsAreNotSerializedAgain() throws Exception {
+		fill(100);
+		AtomicInteger serializations = new AtomicInteger();
+		ObjectMapper mapper = new ObjectMapper();
+		ObjectWriter writer = mapper.writer();
+		ObjectReader reader = mapper.readerFor(Integer.class);
+		ChunkSource<Integer> counting = c -> data.findAll(c).map(i -> {
+			serializations.incrementAndGet();
+			return i;
+		});
+		EncodingChunkSource<Integer> encoding = new EncodingChunkSource<>(counting, writer, reader);
+		CachingChunkSource<Integer> cache =
+				new CachingChunkSource<>(encoding, 100, 1 << 20, EncodedChunk::encodedLengthOf, null);
+		
+		Chunkable request = new ChunkRequest(10, Direction.ASC);
+		ByteArrayOutputStream first = new ByteArrayOutputStream();
+		EncodedChunk.from(cache.findAll(request), writer, reader).writeTo(first);
+		ByteArrayOutputStream second = new ByteArrayOutputStream();
+		EncodedChunk.from(cache.findAll(request), writer, reader).writeTo(second);
+		
+		assertThat(second.toByteArray()).isEqualTo(first.toByteArray());
+		assertThat(serializations).hasValue(10);
+	}
+	
+	private void fill(int count) {
+		for (int i = 0; i < count; i++) {
+			data.put(i);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.polycreo.chunks.jackson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.junit.Test;
+import org.polycreo.chunkrequests.ChunkRequest;
+import org.polycreo.chunkrequests.Chunkable;
+import org.polycreo.chunkrequests.Chunkable.PaginationRelation;
+import org.polycreo.chunkrequests.Direction;
+import org.polycreo.chunks.Chunk;
+import org.polycreo.chunks.ChunkImpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test for {@link StreamingChunkReader}.
+ */
+public class StreamingChunkReaderTest {
+	
+	private ObjectMapper mapper = new ObjectMapper().registerModule(new ChunkModule(true));
+	
+	private StreamingChunkReader sut = new StreamingChunkReader(mapper);
+	
+	
+	@Test
+	public void testReadSerializedChunk() throws Exception {
+		List<Item> items = IntStream.range(0, 100).mapToObj(i -> new Item("item" + i, i)).collect(Collectors.toList());
+		Chunkable request = new ChunkRequest(100, Direction.ASC);
+		Chunk<Item> chunk = ChunkImpl.wrap(items, "token", request);
+		byte[] json = mapper.writeValueAsBytes(chunk);
+		
+		try (StreamingChunk<Item> actual = sut.read(new ByteArrayInputStream(json), Item.class)) {
+			assertThat(actual.getPaginationToken()).isEqualTo("token");
+			assertThat(actual.getHasNext()).isTrue();
+			assertThat(actual.getHasPrevious()).isFalse();
+			assertThat(actual.nextChunkable(request).getPaginationToken()).isEqualTo("token");
+			assertThat(actual.nextChunkable(request).getPaginationRelation()).isEqualTo(PaginationRelation.NEXT);
+			
+			Iterator<Item> iterator = actual.iterator();
+			assertThat(iterator.next()).isEqualTo(new Item("item0", 0));
+			int count = 1;
+			while (iterator.hasNext()) {
+				assertThat(iterator.next()).isEqualTo(items.get(count++));
+			}
+			assertThat(count).isEqualTo(100);
+		}
+	}
+	
+	@Test
+	public void testReadTokenAfterContent() throws Exception {
+		try (StreamingChunk<String> actual = sut.read(json("{'content':['aa',null,'bb'],'paginationToken':'t'}"),
+				String.class)) {
+			assertThat(actual.getPaginationToken()).isNull();
+			assertThat(actual.getHasNext()).isNull();
+			assertThat(actual.stream().collect(Collectors.toList())).containsExactly("aa", null, "bb");
+			assertThat(actual.getPaginationToken()).isEqualTo("t");
+		}
+	}
+	
+	@Test
+	public void testReadWithoutContent() throws Exception {
+		try (StreamingChunk<String> actual = sut.read(json("{'paginationToken':null,'hasNext':false,'x':{'y':[1]}}"),
+				String.class)) {
+			assertThat(actual.getPaginationToken()).isNull();
+			assertThat(actual.getHasNext()).isFalse();
+			assertThat(actual.nextChunkable(new ChunkRequest(10))).isNull();
+			assertThat(actual.iterator().hasNext()).isFalse();
+		}
+	}
+	
+	@Test
+	public void testContentCanBeIteratedOnce() throws Exception {
+		try (StreamingChunk<String> actual = sut.read(json("{'content':['aa']}"), String.class)) {
+			assertThat(actual.stream().collect(Collectors.toList())).isEqualTo(Arrays.asList("aa"));
+			assertThatThrownBy(actual::iterator).isInstanceOf(IllegalStateException.class);
+		}
+	}
+	
+	@Test
+	public void testNotAnObject() {
+		assertThatThrownBy(() -> sut.read(json("['aa']"), String.class))
+			.hasMessageContaining("Chunk must be a JSON object");
+	}
+	
+	private static InputStream json(String json) {
+		return new ByteArrayInputStream(json.replace('\'', '"').getBytes(StandardCharsets.UTF_8));
+	}
+	
+	
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	private static class Item {
+		
+		private String name;
+		
+		private int size;
+	}
+}